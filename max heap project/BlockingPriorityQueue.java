@@ -0,0 +1,289 @@
+import java.util.NoSuchElementException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * Bounded, blocking wrapper around any PriorityQueueInterface. Consumers can wait for a task with take() or
+ * poll(timeout) instead of spinning on isEmpty(), and producers wait in enqueue() while the queue is full, which
+ * pushes back on them when workers fall behind. Once closed, no more tasks are accepted and waiting consumers are
+ * released as soon as the remaining tasks are drained.
+ *
+ * @author Spencer Pattillo
+ */
+public class BlockingPriorityQueue implements PriorityQueueInterface {
+
+    private final PriorityQueueInterface queue;
+    private final int capacity;
+    private int size;
+    private boolean closed;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final Condition notFull = lock.newCondition();
+
+    /**
+     * Creates a new blocking queue around the given queue. The given queue must not be used directly afterwards.
+     *
+     * @param queue An empty priority queue that does the ordering.
+     * @param capacity The maximum number of queued tasks, at least 1.
+     */
+    public BlockingPriorityQueue(PriorityQueueInterface queue, int capacity) {
+        if (capacity < 1) throw new IllegalArgumentException("Illegal argument: capacity must >= 1.");
+        this.queue = queue;
+        this.capacity = capacity;
+    }
+
+    /**
+     * Creates a new blocking queue around a MyPriorityQueue, with no practical bound.
+     */
+    public BlockingPriorityQueue() {
+        this(new MyPriorityQueue(), Integer.MAX_VALUE);
+    }
+
+    /**
+     * Inserts the given task, waiting while the queue is full.
+     *
+     * @param task - Task to enqueue.
+     * @throws IllegalStateException if the queue has been closed.
+     */
+    @Override
+    public void enqueue(Object task) {
+        try {
+            offer(task, Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for space", e);
+        }
+    }
+
+    /**
+     * Inserts the given task, waiting up to the given time for space.
+     *
+     * @param task - Task to enqueue.
+     * @param timeout How long to wait for space.
+     * @param unit The unit of timeout.
+     * @return true if the task was enqueued, false if the queue stayed full.
+     * @throws InterruptedException if interrupted while waiting.
+     * @throws IllegalStateException if the queue has been closed.
+     */
+    public boolean offer(Object task, long timeout, TimeUnit unit) throws InterruptedException {
+        if (task == null){
+            throw new NullPointerException();
+        }
+        long nanos = unit.toNanos(timeout);
+        lock.lockInterruptibly();
+        try {
+            while (size == capacity && !closed) {
+                if (nanos <= 0) return false;
+                nanos = notFull.awaitNanos(nanos);
+            }
+            if (closed) throw new IllegalStateException("Queue is closed");
+            queue.enqueue(task);
+            size++;
+            notEmpty.signal();
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Removes and returns the task with the highest priority, without waiting.
+     *
+     * @return the task with the highest priority in this queue.
+     * @throws NoSuchElementException if the queue is empty.
+     */
+    @Override
+    public Task dequeue() {
+        lock.lock();
+        try {
+            if (size == 0) throw new NoSuchElementException();
+            return removeFirst();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Removes and returns the task with the highest priority, waiting until one is available.
+     *
+     * @return the task with the highest priority, or null once the queue is closed and empty.
+     * @throws InterruptedException if interrupted while waiting.
+     */
+    public Task take() throws InterruptedException {
+        return poll(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Removes and returns the task with the highest priority, waiting up to the given time for one.
+     *
+     * @param timeout How long to wait for a task.
+     * @param unit The unit of timeout.
+     * @return the task with the highest priority, or null if none arrived in time or the queue is closed and empty.
+     * @throws InterruptedException if interrupted while waiting.
+     */
+    public Task poll(long timeout, TimeUnit unit) throws InterruptedException {
+        long nanos = unit.toNanos(timeout);
+        lock.lockInterruptibly();
+        try {
+            while (size == 0) {
+                if (closed || nanos <= 0) return null;
+                nanos = notEmpty.awaitNanos(nanos);
+            }
+            return removeFirst();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Removes up to n tasks with the highest priorities without waiting, passing each to the consumer in priority
+     * order. The consumer runs while this queue is locked.
+     *
+     * @param n The maximum number of tasks to remove.
+     * @param consumer Receives each removed task.
+     * @return the number of tasks removed.
+     */
+    @Override
+    public int drainTo(int n, Consumer<? super Task> consumer) {
+        lock.lock();
+        try {
+            int count = queue.drainTo(n, consumer);
+            removed(count);
+            return count;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Removes and returns up to n tasks with the highest priorities, without waiting.
+     *
+     * @param n The maximum number of tasks to remove.
+     * @return the removed tasks, highest priority first.
+     */
+    @Override
+    public Task[] dequeueBatch(int n) {
+        lock.lock();
+        try {
+            Task[] batch = queue.dequeueBatch(n);
+            removed(batch.length);
+            return batch;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Inserts the given task, then removes and returns the task with the highest priority. Never waits, since the
+     * number of queued tasks does not change.
+     *
+     * @param task - Task to enqueue.
+     * @return the task with the highest priority in this queue, which may be the given task.
+     * @throws IllegalStateException if the queue has been closed.
+     */
+    @Override
+    public Task enqueueThenDequeue(Object task) {
+        lock.lock();
+        try {
+            if (closed) throw new IllegalStateException("Queue is closed");
+            return queue.enqueueThenDequeue(task);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns true if this queue is empty.
+     *
+     * @return true if this queue is empty.
+     */
+    @Override
+    public boolean isEmpty() {
+        lock.lock();
+        try {
+            return size == 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Ages every queued task under this queue's lock.
+     *
+     * @param timeToIncrementPriority How long each task waits for before its priority is incremented.
+     * @param maxPriority The maximum priority any task can have.
+     */
+    @Override
+    public void update(int timeToIncrementPriority, int maxPriority) {
+        lock.lock();
+        try {
+            queue.update(timeToIncrementPriority, maxPriority);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the number of queued tasks.
+     *
+     * @return the number of queued tasks.
+     */
+    public int getSize() {
+        lock.lock();
+        try {
+            return size;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Stops accepting tasks. Tasks already queued can still be taken; once they are gone take() returns null.
+     */
+    public void close() {
+        lock.lock();
+        try {
+            closed = true;
+            notEmpty.signalAll();
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns true if this queue has been closed.
+     *
+     * @return true if this queue has been closed.
+     */
+    public boolean isClosed() {
+        lock.lock();
+        try {
+            return closed;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Removes the first task and wakes a waiting producer. Must hold lock.
+     */
+    private Task removeFirst() {
+        Task task = queue.dequeue();
+        removed(1);
+        return task;
+    }
+
+    /**
+     * Accounts for removed tasks and wakes waiting producers. Must hold lock.
+     */
+    private void removed(int count) {
+        if (count == 0) return;
+        size -= count;
+        if (count == 1) notFull.signal();
+        else notFull.signalAll();
+    }
+}
@@ -0,0 +1,283 @@
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * Heap with a maximum size. Stored as a min-max heap (nodes on even levels are no greater than their descendants,
+ * nodes on odd levels no smaller), so both the greatest and the least element are found at the top and either can
+ * be removed in O(log n). When the heap is full, insert() either evicts the least element to make room or rejects
+ * the new one, depending on the overflow policy. All methods that take an index assume indices start at 1.
+ *
+ * The backing array grows by doubling up to maxSize and halves again once a quarter full, so a burst does not pin
+ * memory after it drains.
+ *
+ * @param <T> The type of element in this BoundedMaxHeap.
+ */
+public class BoundedMaxHeap<T extends Comparable<T>> {
+
+    /**
+     * What insert() does when the heap is full.
+     */
+    public enum OverflowPolicy {
+        /** Drop the least element, or the new one if it is no greater than the least. */
+        EVICT_LOWEST,
+        /** Keep the heap as it is and drop the new element. */
+        REJECT
+    }
+
+    private static final int MIN_CAPACITY = 16;
+
+    protected int heapsize;
+    protected Comparable[] a;
+    private final int maxSize;
+    private final OverflowPolicy policy;
+
+    /**
+     * Makes a new BoundedMaxHeap.
+     *
+     * @param maxSize The maximum number of elements, at least 1.
+     * @param policy What to do when inserting into a full heap.
+     */
+    public BoundedMaxHeap(int maxSize, OverflowPolicy policy) {
+        if (maxSize < 1) throw new IllegalArgumentException("Illegal argument: maxSize must >= 1.");
+        this.maxSize = maxSize;
+        this.policy = policy;
+        a = new Comparable[Math.min(maxSize, MIN_CAPACITY)];
+    }
+
+    /**
+     * Returns the element at the specified index.
+     *
+     * @param i An index in this heap, where the first index is 1.
+     * @return The element at the index.
+     */
+    public T get(int i) {
+        if (i > heapsize) throw new ArrayIndexOutOfBoundsException();
+        return (T)a[i-1];
+    }
+
+    /**
+     * Returns the number of elements in this heap.
+     *
+     * @return the number of elements in this heap.
+     */
+    public int getSize() {
+        return heapsize;
+    }
+
+    /**
+     * Returns the maximum number of elements in this heap.
+     *
+     * @return the maximum number of elements in this heap.
+     */
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * Returns true if this heap holds maxSize elements.
+     *
+     * @return true if this heap is full.
+     */
+    public boolean isFull() {
+        return heapsize == maxSize;
+    }
+
+    /**
+     * Inserts the given element. If the heap is full, applies the overflow policy.
+     *
+     * @param data The element to insert.
+     * @return the element that was dropped to respect maxSize, which may be data itself, or null if none was.
+     */
+    public T insert(Comparable data) {
+        if (data == null){
+            throw new NullPointerException();
+        }
+        if (heapsize == maxSize) {
+            if (policy == OverflowPolicy.REJECT || data.compareTo(a[0]) <= 0) return (T)data;
+            T evicted = (T)a[0];
+            a[0] = data;
+            trickleDown(1);
+            return evicted;
+        }
+        if (heapsize == a.length) {
+            a = Arrays.copyOf(a, (int)Math.min((long)a.length * 2, maxSize));
+        }
+        a[heapsize] = data;
+        heapsize++;
+        bubbleUp(heapsize);
+        return null;
+    }
+
+    /**
+     * Returns the greatest element of this heap without removing it.
+     *
+     * @return the greatest element of this heap.
+     */
+    public T peekMax() {
+        if (heapsize == 0) throw new NoSuchElementException();
+        return (T)a[maxIndex()-1];
+    }
+
+    /**
+     * Returns the least element of this heap without removing it.
+     *
+     * @return the least element of this heap.
+     */
+    public T peekMin() {
+        if (heapsize == 0) throw new NoSuchElementException();
+        return (T)a[0];
+    }
+
+    /**
+     * Removes and returns the greatest element of this heap.
+     *
+     * @return the greatest element of this heap.
+     */
+    public T extractMax() {
+        if (heapsize == 0) throw new NoSuchElementException();
+        return removeAt(maxIndex());
+    }
+
+    /**
+     * Removes and returns the least element of this heap.
+     *
+     * @return the least element of this heap.
+     */
+    public T extractMin() {
+        if (heapsize == 0) throw new NoSuchElementException();
+        return removeAt(1);
+    }
+
+    /**
+     * Shrinks the capacity of this heap to its current size.
+     */
+    public void trimToSize() {
+        if (a.length > heapsize) a = Arrays.copyOf(a, Math.max(heapsize, 1));
+    }
+
+    /**
+     * Returns the length of this heap's backing array.
+     *
+     * @return the capacity of this heap.
+     */
+    public int getCapacity() {
+        return a.length;
+    }
+
+    /**
+     * Restores the heap condition for every element, for use after many elements changed in place.
+     */
+    public void rebuild() {
+        for (int i = heapsize/2; i >= 1; i--) trickleDown(i);
+    }
+
+    /**
+     * Returns the index of the greatest element: the root if it is alone, otherwise the larger of its children.
+     */
+    private int maxIndex() {
+        if (heapsize == 1) return 1;
+        if (heapsize == 2 || a[1].compareTo(a[2]) >= 0) return 2;
+        return 3;
+    }
+
+    /**
+     * Removes the element at the given index, filling the hole with the last element.
+     */
+    private T removeAt(int i) {
+        T b = (T)a[i-1];
+        heapsize--;
+        if (i <= heapsize) {
+            a[i-1] = a[heapsize];
+            a[heapsize] = null;
+            trickleDown(i);
+            bubbleUp(i);
+        } else {
+            a[heapsize] = null;
+        }
+        if (a.length > MIN_CAPACITY && heapsize <= a.length/4) {
+            a = Arrays.copyOf(a, Math.max(a.length/2, MIN_CAPACITY));
+        }
+        return b;
+    }
+
+    /**
+     * Returns true if the given index is on a min level.
+     */
+    private static boolean isMinLevel(int i) {
+        return (31 - Integer.numberOfLeadingZeros(i)) % 2 == 0;
+    }
+
+    /**
+     * Moves the element at the given index up to its place among its ancestors.
+     */
+    private void bubbleUp(int i) {
+        if (i == 1) return;
+        int parent = i/2;
+        if (isMinLevel(i)) {
+            if (a[i-1].compareTo(a[parent-1]) > 0) {
+                swap(i, parent);
+                bubbleUp(parent, 1);
+            } else {
+                bubbleUp(i, -1);
+            }
+        } else {
+            if (a[i-1].compareTo(a[parent-1]) < 0) {
+                swap(i, parent);
+                bubbleUp(parent, -1);
+            } else {
+                bubbleUp(i, 1);
+            }
+        }
+    }
+
+    /**
+     * Moves the element at the given index up through its grandparents, which are all on the same kind of level.
+     *
+     * @param sign 1 on max levels, -1 on min levels.
+     */
+    private void bubbleUp(int i, int sign) {
+        while (i > 3 && sign * a[i-1].compareTo(a[i/4-1]) > 0) {
+            swap(i, i/4);
+            i /= 4;
+        }
+    }
+
+    /**
+     * Moves the element at the given index down to its place among its descendants.
+     */
+    private void trickleDown(int i) {
+        int sign = isMinLevel(i) ? -1 : 1;
+        while (2*i <= heapsize) {
+            int m = 2*i;
+            for (int c = 2*i + 1; c <= Math.min(2*i + 1, heapsize); c++) {
+                if (sign * a[c-1].compareTo(a[m-1]) > 0) m = c;
+            }
+            for (int g = 4*i; g <= Math.min(4*i + 3, heapsize); g++) {
+                if (sign * a[g-1].compareTo(a[m-1]) > 0) m = g;
+            }
+            if (sign * a[m-1].compareTo(a[i-1]) <= 0) return;
+            swap(m, i);
+            if (m < 4*i) return;
+            if (sign * a[m-1].compareTo(a[m/2-1]) < 0) swap(m, m/2);
+            i = m;
+        }
+    }
+
+    /**
+     * Swaps the elements at the two specified indices.
+     */
+    private void swap(int i, int j) {
+        Comparable b = a[i-1];
+        a[i-1] = a[j-1];
+        a[j-1] = b;
+    }
+
+    /**
+     * Returns a string representation of this heap.
+     *
+     * @return a string representation of this heap.
+     */
+    public String toString() {
+        return Arrays.toString(Arrays.copyOf(a, heapsize));
+    }
+}
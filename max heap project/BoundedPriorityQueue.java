@@ -0,0 +1,99 @@
+/**
+ * Provides priority queue management via enqueue, dequeue, isEmpty and update methods, holding at most a fixed
+ * number of tasks. When full, enqueue() either evicts the lowest priority task or rejects the new one.
+ *
+ * @author Spencer Pattillo
+ */
+public class BoundedPriorityQueue extends BoundedMaxHeap<Task> implements PriorityQueueInterface {
+
+    private long droppedCount;
+
+    /**
+     * Creates a new bounded priority queue.
+     *
+     * @param maxSize The maximum number of queued tasks.
+     * @param policy What to do when enqueueing into a full queue.
+     */
+    public BoundedPriorityQueue(int maxSize, OverflowPolicy policy) {
+        super(maxSize, policy);
+    }
+
+    /**
+     * Inserts the given task into this priority queue, dropping a task if the queue is full.
+     *
+     * @param task - Task to enqueue.
+     */
+    @Override
+    public void enqueue(Object task) {
+        if (task == null){
+            throw new NullPointerException();
+        }
+        if (insert((Task)task) != null) droppedCount++;
+    }
+
+    /**
+     * Removes and returns the task with the highest priority in this queue.
+     *
+     * @return the task with the highest priority in this queue.
+     */
+    @Override
+    public Task dequeue() {
+        return extractMax();
+    }
+
+    /**
+     * Inserts the given task, then removes and returns the task with the highest priority in this queue. Never
+     * drops a task, since the number of queued tasks does not change.
+     *
+     * @param task - Task to enqueue.
+     * @return the task with the highest priority in this queue, which may be the given task.
+     */
+    @Override
+    public Task enqueueThenDequeue(Object task) {
+        if (task == null){
+            throw new NullPointerException();
+        }
+        Task t = (Task)task;
+        if (heapsize == 0 || peekMax().compareTo(t) <= 0) return t;
+        Task max = extractMax();
+        insert(t);
+        return max;
+    }
+
+    /**
+     * Returns true if this queue is empty.
+     *
+     * @return true if this queue is empty.
+     */
+    @Override
+    public boolean isEmpty() {
+        return getSize() == 0;
+    }
+
+    /**
+     * Increases the waiting times of all currently queued tasks. Each task that has passed timeToIncrementPriority
+     * will have its priority increased, up to the provided maximum. The heap is rebuilt once if any task changed.
+     *
+     * @param timeToIncrementPriority How long each task waits for before its priority is incremented.
+     * @param maxPriority The maximum priority any task can have.
+     */
+    @Override
+    public void update(int timeToIncrementPriority, int maxPriority) {
+        boolean changed = false;
+        for (int i = 0; i < heapsize; i++) {
+            Task task = (Task) a[i];
+            task.incrementWaitingTime();
+            if (task.updatePriority(timeToIncrementPriority, maxPriority)) changed = true;
+        }
+        if (changed) rebuild();
+    }
+
+    /**
+     * Returns how many tasks were evicted or rejected because the queue was full.
+     *
+     * @return the number of dropped tasks.
+     */
+    public long getDroppedCount() {
+        return droppedCount;
+    }
+}
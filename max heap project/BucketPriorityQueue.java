@@ -0,0 +1,208 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Priority queue for small, bounded integer priorities. Keeps one bucket per priority level and a bitmap of the
+ * non-empty buckets, so finding the highest priority is a leading-zero count rather than a walk down a heap.
+ *
+ * Tasks of equal priority still leave in Task.compareTo() order, which falls back to hourCreated. Arrival order is
+ * not enough for that since re-queued tasks keep their old hourCreated, so each bucket is a small heap of tasks that
+ * all share one priority. Enqueue and dequeue cost O(log b) for a bucket of b tasks. update() must still visit
+ * every task to advance its waiting time, but a bumped task moves to the next bucket without disturbing the rest.
+ *
+ * @author Spencer Pattillo
+ */
+public class BucketPriorityQueue implements PriorityQueueInterface {
+
+    private Bucket[] buckets;
+    private long[] nonEmpty;
+    private int size;
+
+    /**
+     * Creates a new priority queue with buckets for priorities 0 through maxPriority. Higher priorities are
+     * accepted and get buckets on demand; negative priorities are rejected by enqueue().
+     *
+     * @param maxPriority The maximum priority any task is expected to have.
+     */
+    public BucketPriorityQueue(int maxPriority) {
+        buckets = new Bucket[Math.max(maxPriority, 0) + 1];
+        nonEmpty = new long[(buckets.length + 63) / 64];
+    }
+
+    /**
+     * Inserts the given task into the bucket for its priority.
+     *
+     * @param task - Task to enqueue.
+     * @throws IllegalArgumentException if the task's priority is negative.
+     */
+    @Override
+    public void enqueue(Object task) {
+        if (task == null){
+            throw new NullPointerException();
+        }
+        Task t = (Task)task;
+        if (t.getPriority() < 0) throw new IllegalArgumentException("Illegal argument: priority must >= 0.");
+        bucket(t.getPriority()).insert(t);
+        size++;
+    }
+
+    /**
+     * Removes and returns the task with the highest priority in this queue.
+     *
+     * @return the task with the highest priority in this queue.
+     */
+    @Override
+    public Task dequeue() {
+        int p = highestPriority();
+        if (p < 0){
+            throw new NoSuchElementException();
+        }
+        Task task = (Task)buckets[p].extractMax();
+        if (buckets[p].getSize() == 0) clearBit(p);
+        size--;
+        return task;
+    }
+
+    /**
+     * Returns true if this queue is empty.
+     *
+     * @return true if this queue is empty.
+     */
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Increases the waiting times of all currently queued tasks. Each task that has passed timeToIncrementPriority
+     * will move to the next bucket, up to the provided maximum. Buckets are visited from the highest priority down,
+     * so a task is only aged once per call.
+     *
+     * @param timeToIncrementPriority How long each task waits for before its priority is incremented.
+     * @param maxPriority The maximum priority any task can have.
+     */
+    @Override
+    public void update(int timeToIncrementPriority, int maxPriority) {
+        for (int p = buckets.length - 1; p >= 0; p--) {
+            Bucket bucket = buckets[p];
+            if (bucket == null || bucket.getSize() == 0) continue;
+            Bucket next = p < maxPriority ? ensureBucket(p + 1) : null;
+            bucket.age(timeToIncrementPriority, maxPriority, next);
+            if (bucket.getSize() == 0) clearBit(p);
+            if (next != null && next.getSize() > 0) setBit(p + 1);
+        }
+    }
+
+    /**
+     * Returns the number of tasks in this queue.
+     *
+     * @return the number of tasks in this queue.
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Returns the bucket for the given priority, creating it and marking it non-empty.
+     *
+     * @param priority A task priority.
+     * @return the bucket for the priority.
+     */
+    private Bucket bucket(int priority) {
+        Bucket bucket = ensureBucket(priority);
+        setBit(priority);
+        return bucket;
+    }
+
+    /**
+     * Returns the bucket for the given priority, creating it if needed.
+     *
+     * @param priority A task priority.
+     * @return the bucket for the priority.
+     */
+    private Bucket ensureBucket(int priority) {
+        if (priority >= buckets.length) {
+            buckets = Arrays.copyOf(buckets, priority + 1);
+            nonEmpty = Arrays.copyOf(nonEmpty, (buckets.length + 63) / 64);
+        }
+        if (buckets[priority] == null) buckets[priority] = new Bucket();
+        return buckets[priority];
+    }
+
+    /**
+     * Marks the bucket for the given priority as non-empty.
+     *
+     * @param priority A task priority.
+     */
+    private void setBit(int priority) {
+        nonEmpty[priority >>> 6] |= 1L << priority;
+    }
+
+    /**
+     * Marks the bucket for the given priority as empty.
+     *
+     * @param priority A task priority.
+     */
+    private void clearBit(int priority) {
+        nonEmpty[priority >>> 6] &= ~(1L << priority);
+    }
+
+    /**
+     * Returns the highest priority with a non-empty bucket, or -1 if there is none.
+     *
+     * @return the highest queued priority.
+     */
+    private int highestPriority() {
+        for (int w = nonEmpty.length - 1; w >= 0; w--) {
+            if (nonEmpty[w] != 0) return w * 64 + 63 - Long.numberOfLeadingZeros(nonEmpty[w]);
+        }
+        return -1;
+    }
+
+    /**
+     * Returns a string representation of this queue.
+     *
+     * @return a string representation of this queue.
+     */
+    public String toString() {
+        List<String> levels = new ArrayList<>();
+        for (int p = buckets.length - 1; p >= 0; p--) {
+            if (buckets[p] != null && buckets[p].getSize() > 0) levels.add(p + "=" + buckets[p]);
+        }
+        return levels.toString();
+    }
+
+    /**
+     * The tasks of a single priority level, ordered by Task.compareTo().
+     */
+    private static final class Bucket extends MaxHeap<Task> {
+
+        private Bucket() {
+            super(8);
+        }
+
+        /**
+         * Ages every task in this bucket. Tasks whose priority is bumped move to next; the rest are compacted
+         * and re-heaped in linear time.
+         */
+        private void age(int timeToIncrementPriority, int maxPriority, Bucket next) {
+            int kept = 0;
+            for (int i = 0; i < heapsize; i++) {
+                Task task = (Task)a[i];
+                task.incrementWaitingTime();
+                if (task.updatePriority(timeToIncrementPriority, maxPriority)) next.insert(task);
+                else a[kept++] = task;
+            }
+            if (kept == heapsize) return;
+            Arrays.fill(a, kept, heapsize, null);
+            heapsize = kept;
+            buildMaxHeap();
+        }
+
+        public String toString() {
+            return Arrays.toString(Arrays.copyOf(a, heapsize));
+        }
+    }
+}
@@ -0,0 +1,231 @@
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * Priority queue whose heap holds int slot numbers into a TaskStore instead of Task references. Sifting compares
+ * the priority and hourCreated columns directly, so no Task objects are loaded and no compareTo() calls are made.
+ * All methods that take an index assume indices start at 1.
+ *
+ * As a PriorityQueueInterface it copies tasks into the store on enqueue and, on dequeue, writes the current
+ * priority, waiting time and enqueued hour back into the same Task and returns it, so a task passed through the
+ * queue is never copied into a new object. Callers that want to avoid Task objects entirely can use the slot-based
+ * methods and getStore().
+ *
+ * @author Spencer Pattillo
+ */
+public class ColumnarPriorityQueue implements PriorityQueueInterface {
+
+    private final TaskStore store;
+    private int[] heap;
+    private int heapsize;
+
+    /**
+     * Creates a new priority queue with the provided initial capacity.
+     *
+     * @param capacity The initial capacity of this queue.
+     */
+    public ColumnarPriorityQueue(int capacity) {
+        store = new TaskStore(capacity);
+        heap = new int[Math.max(capacity, 1)];
+    }
+
+    /**
+     * Creates a new priority queue with an initial capacity of 32.
+     */
+    public ColumnarPriorityQueue() {
+        this(32);
+    }
+
+    /**
+     * Returns the store that holds this queue's tasks.
+     *
+     * @return the task store.
+     */
+    public TaskStore getStore() {
+        return store;
+    }
+
+    /**
+     * Returns the slot at the specified index.
+     *
+     * @param i An index in this heap, where the first index is 1.
+     * @return The slot at the index.
+     */
+    public int get(int i) {
+        if (i > heapsize) throw new ArrayIndexOutOfBoundsException();
+        return heap[i-1];
+    }
+
+    /**
+     * Returns the number of tasks in this queue.
+     *
+     * @return the number of tasks in this queue.
+     */
+    public int getSize() {
+        return heapsize;
+    }
+
+    /**
+     * Inserts a slot of this queue's store into the heap.
+     *
+     * @param slot A slot returned by getStore().add().
+     */
+    public void insertSlot(int slot) {
+        if (heap.length == heapsize) {
+            heap = Arrays.copyOf(heap, heap.length * 2);
+        }
+        heap[heapsize] = slot;
+        heapsize++;
+        heapifyUp(heapsize);
+        if (SchedulerMetrics.ENABLED) SchedulerMetrics.countOperation();
+    }
+
+    /**
+     * Removes and returns the slot of the highest priority task. The slot stays allocated in the store until the
+     * caller removes it or inserts it again.
+     *
+     * @return the slot of the highest priority task.
+     */
+    public int extractMaxSlot() {
+        if (heapsize == 0) {
+            throw new NoSuchElementException();
+        }
+        int slot = heap[0];
+        heapsize--;
+        if (heapsize > 0) {
+            heap[0] = heap[heapsize];
+            heapify(1);
+        }
+        if (SchedulerMetrics.ENABLED) SchedulerMetrics.countOperation();
+        return slot;
+    }
+
+    /**
+     * Sifts slots 'down' the heap to satisfy the heap condition, starting at the specified index.
+     *
+     * @param i An index in this heap, where the first index is 1.
+     */
+    public void heapify(int i) {
+        int slot = heap[i-1];
+        int half = heapsize / 2;
+        int compares = 0, moves = 0;
+        while (i <= half) {
+            int child = 2 * i;
+            if (child < heapsize) {
+                compares++;
+                if (store.compare(heap[child], heap[child-1]) > 0) child++;
+            }
+            compares++;
+            if (store.compare(heap[child-1], slot) <= 0) break;
+            heap[i-1] = heap[child-1];
+            i = child;
+            moves++;
+        }
+        heap[i-1] = slot;
+        if (SchedulerMetrics.ENABLED) SchedulerMetrics.countSift(compares, moves);
+    }
+
+    /**
+     * Sifts a slot 'up' the heap to satisfy the heap condition, starting at the specified index.
+     *
+     * @param i An index in this heap, where the first index is 1.
+     */
+    public void heapifyUp(int i) {
+        int slot = heap[i-1];
+        int compares = 0, moves = 0;
+        while (i > 1) {
+            int parent = i / 2;
+            compares++;
+            if (store.compare(slot, heap[parent-1]) <= 0) break;
+            heap[i-1] = heap[parent-1];
+            i = parent;
+            moves++;
+        }
+        heap[i-1] = slot;
+        if (SchedulerMetrics.ENABLED) SchedulerMetrics.countSift(compares, moves);
+    }
+
+    /**
+     * Copies the given task into this queue.
+     *
+     * @param task - Task to enqueue.
+     */
+    @Override
+    public void enqueue(Object task) {
+        if (task == null){
+            throw new NullPointerException();
+        }
+        insertSlot(store.add((Task)task));
+    }
+
+    /**
+     * Removes and returns the task with the highest priority in this queue.
+     *
+     * @return the task with the highest priority in this queue.
+     */
+    @Override
+    public Task dequeue() {
+        return store.removeTask(extractMaxSlot());
+    }
+
+    /**
+     * Inserts the given task, then removes and returns the task with the highest priority in this queue.
+     *
+     * @param task - Task to enqueue.
+     * @return the task with the highest priority in this queue, which may be the given task.
+     */
+    @Override
+    public Task enqueueThenDequeue(Object task) {
+        if (task == null){
+            throw new NullPointerException();
+        }
+        Task t = (Task)task;
+        if (SchedulerMetrics.ENABLED) {
+            SchedulerMetrics.countOperation();
+            if (heapsize > 0) SchedulerMetrics.countSift(1, 0);
+        }
+        if (heapsize == 0 || store.compare(heap[0], t) <= 0) {
+            return t;
+        }
+        int top = heap[0];
+        heap[0] = store.add(t);
+        heapify(1);
+        return store.removeTask(top);
+    }
+
+    /**
+     * Returns true if this queue is empty.
+     *
+     * @return true if this queue is empty.
+     */
+    @Override
+    public boolean isEmpty() {
+        return heapsize == 0;
+    }
+
+    /**
+     * Increases the waiting times of all currently queued tasks. Each task that has passed timeToIncrementPriority
+     * will have its priority increased, up to the provided maximum.
+     *
+     * @param timeToIncrementPriority How long each task waits for before its priority is incremented.
+     * @param maxPriority The maximum priority any task can have.
+     */
+    @Override
+    public void update(int timeToIncrementPriority, int maxPriority) {
+        for (int i = 0; i < heapsize; i++) {
+            if (store.age(heap[i], timeToIncrementPriority, maxPriority))
+                heapifyUp(i+1);
+        }
+    }
+
+    /**
+     * Returns a string representation of this queue.
+     *
+     * @return a string representation of this queue.
+     */
+    public String toString() {
+        Task[] tasks = new Task[heapsize];
+        for (int i = 0; i < heapsize; i++) tasks[i] = store.toTask(heap[i]);
+        return Arrays.toString(tasks);
+    }
+}
@@ -0,0 +1,154 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Append-only binary trace of a MyLifeInStarDew run. The file is a 64-byte header followed by fixed-size 24-byte
+ * records, both little-endian, written through a large direct buffer.
+ *
+ * Header: magic "SDTR" (int), version (short), record size (short), maxPriority, timeToIncrementLevel,
+ * simulationDays (ints), taskGenerationProbability (double), seed (long), flags (int: SEEDED), queue
+ * type as an index into MyLifeInStarDew.QUEUE_TYPES (int), then zeros.
+ *
+ * Record: tick (int, the simulation hour), event (byte), TaskType ordinal (byte, -1 for none), detail id (byte, -1
+ * for none), hour of the day (byte), task id (int), priority (int), energy (int), money (int). The task id is the
+ * hour the task was created, which is unique since at most one task arrives per hour. Money is the total money made
+ * so far and energy the current energy, except where an event below says otherwise.
+ *
+ * DAY_START: task id is the day; energy and money hold the high and low words of the day's luck as double bits.
+ * NEW_TASK: the new task. WORK: the task worked on, with the energy and money before the hour's work. IDLE: an hour
+ * with nothing to do. PASSED_OUT and DIED: the task, with the energy left and the money after the doctor's fee.
+ * DAY_OVER: energy ran out. DAY_END: task id is the day and energy the money made that day. RUN_END: task id is
+ * the number of tasks generated and priority the number of deaths and pass-outs.
+ */
+public class EventTrace implements Closeable {
+
+    public static final int MAGIC = 0x52544453; //"SDTR" when read little-endian
+    public static final short VERSION = 1;
+    public static final int HEADER_SIZE = 64;
+    public static final int RECORD_SIZE = 24;
+
+    public static final int SEEDED = 1;
+
+    public static final byte DAY_START = 1;
+    public static final byte NEW_TASK = 2;
+    public static final byte WORK = 3;
+    public static final byte IDLE = 4;
+    public static final byte PASSED_OUT = 5;
+    public static final byte DIED = 6;
+    public static final byte DAY_OVER = 7;
+    public static final byte DAY_END = 8;
+    public static final byte RUN_END = 9;
+
+    private static final int BUFFER_RECORDS = 1 << 16;
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer;
+    private long records;
+
+    /**
+     * Creates or truncates the given file and writes the header of a run with the given settings.
+     *
+     * @param file The trace file.
+     * @param maxPriority The maximum priority any task can have.
+     * @param timeToIncrementLevel How long a task waits before its priority is incremented.
+     * @param simulationDays The number of days simulated.
+     * @param taskGenerationProbability The probability that a task is generated in any hour.
+     * @param seed The seed of the run.
+     * @param flags SEEDED if it applies.
+     * @param queueType One of MyLifeInStarDew.QUEUE_TYPES.
+     * @throws IOException if the file cannot be written.
+     */
+    public EventTrace(Path file, int maxPriority, int timeToIncrementLevel, int simulationDays,
+                      double taskGenerationProbability, long seed, int flags, String queueType) throws IOException {
+        int queueIndex = MyLifeInStarDew.QUEUE_TYPES.indexOf(queueType);
+        if (queueIndex < 0) throw new IllegalArgumentException("Illegal argument: unknown queue type " + queueType + ".");
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        buffer = ByteBuffer.allocateDirect(BUFFER_RECORDS * RECORD_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(MAGIC).putShort(VERSION).putShort((short)RECORD_SIZE);
+        buffer.putInt(maxPriority).putInt(timeToIncrementLevel).putInt(simulationDays);
+        buffer.putDouble(taskGenerationProbability).putLong(seed).putInt(flags).putInt(queueIndex);
+        while (buffer.position() < HEADER_SIZE) buffer.put((byte)0);
+    }
+
+    /**
+     * Appends a record about the given task, or about no task if it is null.
+     *
+     * @param event One of the event constants.
+     * @param tick The simulation hour.
+     * @param hourOfDay The hour of the day, from 0.
+     * @param task The task, or null.
+     * @param energy The energy.
+     * @param money The money.
+     */
+    public void record(byte event, int tick, int hourOfDay, Task task, int energy, int money) {
+        if (task == null) record(event, tick, hourOfDay, -1, -1, 0, 0, energy, money);
+        else record(event, tick, hourOfDay, task.getTaskType().ordinal(), task.getDetailId(),
+                task.getHourCreated(), task.getPriority(), energy, money);
+    }
+
+    /**
+     * Appends a record with the given fields.
+     *
+     * @param event One of the event constants.
+     * @param tick The simulation hour.
+     * @param hourOfDay The hour of the day, from 0.
+     * @param type The TaskType ordinal, or -1.
+     * @param detailId The detail id, or -1.
+     * @param taskId The task id.
+     * @param priority The priority.
+     * @param energy The energy.
+     * @param money The money.
+     */
+    public void record(byte event, int tick, int hourOfDay, int type, int detailId, int taskId, int priority,
+                       int energy, int money) {
+        if (buffer.remaining() < RECORD_SIZE) flush();
+        buffer.putInt(tick).put(event).put((byte)type).put((byte)detailId).put((byte)hourOfDay);
+        buffer.putInt(taskId).putInt(priority).putInt(energy).putInt(money);
+        records++;
+    }
+
+    /**
+     * Returns the number of records appended so far.
+     *
+     * @return the number of records.
+     */
+    public long getRecordCount() {
+        return records;
+    }
+
+    /**
+     * Writes the buffered records to the file.
+     */
+    private void flush() {
+        buffer.flip();
+        try {
+            while (buffer.hasRemaining()) channel.write(buffer);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * Writes the remaining records and closes the file.
+     *
+     * @throws IOException if the file cannot be written.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } finally {
+            channel.close();
+        }
+    }
+}
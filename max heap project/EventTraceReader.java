@@ -0,0 +1,287 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads a trace written by EventTrace. The file is memory-mapped, so records are decoded in place by index without
+ * being copied onto the heap. See EventTrace for the layout.
+ */
+public class EventTraceReader {
+
+    private final ByteBuffer buffer;
+    private final int recordCount;
+    private final int maxPriority;
+    private final int timeToIncrementLevel;
+    private final int simulationDays;
+    private final double taskGenerationProbability;
+    private final long seed;
+    private final int flags;
+    private final String queueType;
+
+    /**
+     * Maps the given trace file and checks its header.
+     *
+     * @param file The trace file.
+     * @throws IOException if the file cannot be read or is not a trace.
+     */
+    public EventTraceReader(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) throw new IOException(file + " is too large to map.");
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size).order(ByteOrder.LITTLE_ENDIAN);
+        }
+        if (buffer.capacity() < EventTrace.HEADER_SIZE || buffer.getInt(0) != EventTrace.MAGIC)
+            throw new IOException(file + " is not an event trace.");
+        if (buffer.getShort(4) != EventTrace.VERSION)
+            throw new IOException(file + " has unsupported trace version " + buffer.getShort(4) + ".");
+        if (buffer.getShort(6) != EventTrace.RECORD_SIZE)
+            throw new IOException(file + " has unsupported record size " + buffer.getShort(6) + ".");
+        if ((buffer.capacity() - EventTrace.HEADER_SIZE) % EventTrace.RECORD_SIZE != 0)
+            throw new IOException(file + " ends in a partial record.");
+        recordCount = (buffer.capacity() - EventTrace.HEADER_SIZE) / EventTrace.RECORD_SIZE;
+        maxPriority = buffer.getInt(8);
+        timeToIncrementLevel = buffer.getInt(12);
+        simulationDays = buffer.getInt(16);
+        taskGenerationProbability = buffer.getDouble(20);
+        seed = buffer.getLong(28);
+        flags = buffer.getInt(36);
+        int queueIndex = buffer.getInt(40);
+        if (queueIndex < 0 || queueIndex >= MyLifeInStarDew.QUEUE_TYPES.size())
+            throw new IOException(file + " has unknown queue type " + queueIndex + ".");
+        queueType = MyLifeInStarDew.QUEUE_TYPES.get(queueIndex);
+    }
+
+    /**
+     * Returns the maximum priority of the traced run.
+     *
+     * @return the maximum priority.
+     */
+    public int getMaxPriority() {
+        return maxPriority;
+    }
+
+    /**
+     * Returns the time to increment a priority level of the traced run.
+     *
+     * @return the time to increment level.
+     */
+    public int getTimeToIncrementLevel() {
+        return timeToIncrementLevel;
+    }
+
+    /**
+     * Returns the number of days of the traced run.
+     *
+     * @return the number of days.
+     */
+    public int getSimulationDays() {
+        return simulationDays;
+    }
+
+    /**
+     * Returns the task generation probability of the traced run.
+     *
+     * @return the task generation probability.
+     */
+    public double getTaskGenerationProbability() {
+        return taskGenerationProbability;
+    }
+
+    /**
+     * Returns the seed of the traced run, which is only meaningful if isSeeded().
+     *
+     * @return the seed.
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Returns true if the traced run was seeded and can be run again.
+     *
+     * @return true if the run was seeded.
+     */
+    public boolean isSeeded() {
+        return (flags & EventTrace.SEEDED) != 0;
+    }
+
+    /**
+     * Returns the queue type of the traced run.
+     *
+     * @return one of MyLifeInStarDew.QUEUE_TYPES.
+     */
+    public String getQueueType() {
+        return queueType;
+    }
+
+    /**
+     * Returns the number of records in the trace.
+     *
+     * @return the number of records.
+     */
+    public int getRecordCount() {
+        return recordCount;
+    }
+
+    /**
+     * Returns the simulation hour of the given record.
+     *
+     * @param i The index of a record.
+     * @return the tick.
+     */
+    public int getTick(int i) {
+        return buffer.getInt(offset(i));
+    }
+
+    /**
+     * Returns the event of the given record.
+     *
+     * @param i The index of a record.
+     * @return one of the EventTrace event constants.
+     */
+    public byte getEvent(int i) {
+        return buffer.get(offset(i) + 4);
+    }
+
+    /**
+     * Returns the task type of the given record, or null if it has none.
+     *
+     * @param i The index of a record.
+     * @return the task type, or null.
+     */
+    public TaskInterface.TaskType getTaskType(int i) {
+        byte type = buffer.get(offset(i) + 5);
+        return type < 0 ? null : TaskInterface.TaskType.values()[type];
+    }
+
+    /**
+     * Returns the detail id of the given record, or -1 if it has none.
+     *
+     * @param i The index of a record.
+     * @return the detail id.
+     */
+    public int getDetailId(int i) {
+        return buffer.get(offset(i) + 6);
+    }
+
+    /**
+     * Returns the hour of the day of the given record.
+     *
+     * @param i The index of a record.
+     * @return the hour of the day.
+     */
+    public int getHourOfDay(int i) {
+        return buffer.get(offset(i) + 7);
+    }
+
+    /**
+     * Returns the task id of the given record.
+     *
+     * @param i The index of a record.
+     * @return the task id.
+     */
+    public int getTaskId(int i) {
+        return buffer.getInt(offset(i) + 8);
+    }
+
+    /**
+     * Returns the priority of the given record.
+     *
+     * @param i The index of a record.
+     * @return the priority.
+     */
+    public int getPriority(int i) {
+        return buffer.getInt(offset(i) + 12);
+    }
+
+    /**
+     * Returns the energy of the given record.
+     *
+     * @param i The index of a record.
+     * @return the energy.
+     */
+    public int getEnergy(int i) {
+        return buffer.getInt(offset(i) + 16);
+    }
+
+    /**
+     * Returns the money of the given record.
+     *
+     * @param i The index of a record.
+     * @return the money.
+     */
+    public int getMoney(int i) {
+        return buffer.getInt(offset(i) + 20);
+    }
+
+    /**
+     * Returns a new task with the type, detail, id and priority of the given record, or null if it has none.
+     *
+     * @param i The index of a record.
+     * @return the task, or null.
+     */
+    public Task getTask(int i) {
+        TaskInterface.TaskType type = getTaskType(i);
+        if (type == null) return null;
+        Task task = new Task(getTaskId(i), type, getDetailId(i));
+        task.setPriority(getPriority(i));
+        return task;
+    }
+
+    /**
+     * Returns the index of the first record that differs between this trace and the other, counting a record
+     * missing from the shorter trace as different, or -1 if all records are equal. Headers are not compared.
+     *
+     * @param other Another trace.
+     * @return the index of the first differing record, or -1.
+     */
+    public int mismatch(EventTraceReader other) {
+        int byteIndex = records().mismatch(other.records());
+        return byteIndex < 0 ? -1 : byteIndex / EventTrace.RECORD_SIZE;
+    }
+
+    /**
+     * Returns a view of the records without the header.
+     */
+    private ByteBuffer records() {
+        return buffer.slice(EventTrace.HEADER_SIZE, buffer.capacity() - EventTrace.HEADER_SIZE);
+    }
+
+    /**
+     * Returns a string describing the given record.
+     *
+     * @param i The index of a record.
+     * @return a string describing the record.
+     */
+    public String toString(int i) {
+        String name;
+        switch (getEvent(i)) {
+            case EventTrace.DAY_START: name = "DAY_START"; break;
+            case EventTrace.NEW_TASK: name = "NEW_TASK"; break;
+            case EventTrace.WORK: name = "WORK"; break;
+            case EventTrace.IDLE: name = "IDLE"; break;
+            case EventTrace.PASSED_OUT: name = "PASSED_OUT"; break;
+            case EventTrace.DIED: name = "DIED"; break;
+            case EventTrace.DAY_OVER: name = "DAY_OVER"; break;
+            case EventTrace.DAY_END: name = "DAY_END"; break;
+            case EventTrace.RUN_END: name = "RUN_END"; break;
+            default: name = "EVENT " + getEvent(i);
+        }
+        TaskInterface.TaskType type = getTaskType(i);
+        return "#" + i + " hour " + getTick(i) + " (" + getHourOfDay(i) + ") " + name
+                + (type == null ? "" : " " + type + " detail " + getDetailId(i))
+                + " id " + getTaskId(i) + " priority " + getPriority(i) + " energy " + getEnergy(i)
+                + " money " + getMoney(i);
+    }
+
+    /**
+     * Returns the byte offset of the given record.
+     */
+    private int offset(int i) {
+        if (i < 0 || i >= recordCount) throw new IndexOutOfBoundsException("record " + i + " of " + recordCount);
+        return EventTrace.HEADER_SIZE + i * EventTrace.RECORD_SIZE;
+    }
+}
@@ -0,0 +1,342 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Phaser;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Simulates many farmers who live on one farm and share its fishing spots and mine levels. Each Farmer keeps its
+ * own queue, task generator and energy. The farmers are split into contiguous ranges, one per worker thread, and all
+ * threads advance through the same hour in lockstep on a Phaser with two phases per hour:
+ *
+ * 1. Every worker calls select() on its farmers, which records the resource each current task needs, and files the
+ *    arbitration key of each claim under its resource in the worker's own Claims, sorted.
+ * 2. The last thread to arrive hands out the resources in onAdvance(). Each fishing spot (a fishing detail) and mine
+ *    level (a mining detail) holds a fixed number of farmers per hour. When more farmers want one, the tasks with the
+ *    highest priority win, and ties are broken by a hash of the hour and the farmer, so no farmer always loses.
+ *    Only oversubscribed resources need work: their workers' sorted claims are merged just far enough to find the
+ *    greatest key that still wins, which becomes the resource's cutoff.
+ * 3. Every worker calls work() on its farmers, granting each claim whose key is within the cutoff of its resource,
+ *    and the last thread to arrive moves the clock on.
+ *
+ * The serial step thus costs O(RESOURCES * threads) plus O(capacity * threads) for each oversubscribed resource,
+ * however many farmers there are. Requests and keys are plain arrays indexed by farmer; each worker only writes the
+ * slots of its own farmers and its own Claims, and the phaser orders those writes before the arbitration and the
+ * arbitration before the reads. Keys are unique and ordered the same way whatever the thread count, so a run is
+ * deterministic for a given seed and the results do not depend on the number of threads.
+ *
+ * Usage: java FarmSimulation <max-priority> <time-to-increment-priority> <total simulation-time in days>
+ * <task-generation-probability> <farmers> [<seed>] [--queue=...] [--threads=N] [--spots=N]
+ */
+public class FarmSimulation {
+
+    /**
+     * The number of shared resources: the fishing spots of the first four fishing details, then the mine levels of
+     * the first four mining details.
+     */
+    public static final int RESOURCES = 8;
+
+    private static final int HOURS_PER_DAY = 20;
+    private static final int MAX_FARMERS = 1 << 24; //farmer indexes fit the low bits of an arbitration key
+
+    private final Farmer[] farmers;
+    private final int maxPriority;
+    private final int simulationDays;
+    private final int capacity;
+    private final int[] requests; //resource of each farmer's current task, or -1
+    private final long[] keys; //arbitration key of each farmer's claim, valid while its request is not -1
+    private final long[] cutoffs = new long[RESOURCES]; //greatest key granted each resource this hour
+    private Claims[] claims; //one per worker
+    private int[] heads; //merge position in each worker's claims, reused by arbitrate()
+
+    private int day;
+    private int hourOfDay;
+    private long hours;
+    private long deniedHours;
+
+    /**
+     * Creates a farm. Farmer i is seeded with seed + i * 0x9E3779B97F4A7C15, so farmer 0 has the given seed.
+     *
+     * @param farmers The number of farmers, at least 1.
+     * @param maxPriority The maximum priority any task can have.
+     * @param timeToIncrementLevel How long a task waits before its priority is incremented.
+     * @param simulationDays The number of days to simulate.
+     * @param taskGenerationProbability The probability that a task is generated in any hour, for each farmer.
+     * @param seed The seed of the farm.
+     * @param queueType One of MyLifeInStarDew.QUEUE_TYPES.
+     * @param capacity How many farmers can use each fishing spot and mine level in the same hour, at least 1.
+     */
+    public FarmSimulation(int farmers, int maxPriority, int timeToIncrementLevel, int simulationDays,
+                          double taskGenerationProbability, long seed, String queueType, int capacity) {
+        if (farmers < 1 || farmers > MAX_FARMERS)
+            throw new IllegalArgumentException("Illegal argument: farmers must be in [1, " + MAX_FARMERS + "].");
+        if (maxPriority < 1 || maxPriority >= 1 << 23)
+            throw new IllegalArgumentException("Illegal argument: maxPriorityLevel must be in [1, 2^23).");
+        if (simulationDays < 1) throw new IllegalArgumentException("Illegal argument: simulationTime must >= 1.");
+        if (capacity < 1) throw new IllegalArgumentException("Illegal argument: capacity must >= 1.");
+        if (!MyLifeInStarDew.QUEUE_TYPES.contains(queueType))
+            throw new IllegalArgumentException("Illegal argument: unknown queue type " + queueType + ".");
+        this.farmers = new Farmer[farmers];
+        for (int i = 0; i < farmers; i++) {
+            this.farmers[i] = new Farmer(i, maxPriority, timeToIncrementLevel, taskGenerationProbability,
+                    seed + i * 0x9E3779B97F4A7C15L, queueType);
+        }
+        this.maxPriority = maxPriority;
+        this.simulationDays = simulationDays;
+        this.capacity = capacity;
+        requests = new int[farmers];
+        keys = new long[farmers];
+    }
+
+    /**
+     * Returns the shared resource the given task needs, or -1 if it needs none.
+     *
+     * @param task Any task.
+     * @return the index of the resource, or -1.
+     */
+    public static int getResource(Task task) {
+        int detail = task.getDetailId();
+        if (detail < 0 || detail >= RESOURCES / 2) return -1;
+        switch (task.getTaskType()) {
+            case FISHING: return detail;
+            case MINING: return RESOURCES / 2 + detail;
+            default: return -1;
+        }
+    }
+
+    /**
+     * Runs the whole simulation on the given number of worker threads. A farm can only be run once.
+     *
+     * @param threads The number of worker threads, at least 1.
+     * @return the totals of each farmer, in farmer order.
+     */
+    public SimulationResult[] run(int threads) {
+        if (threads < 1) throw new IllegalArgumentException("Illegal argument: threads must >= 1.");
+        if (hours > 0) throw new IllegalStateException("This farm has already been run.");
+        int workers = Math.min(threads, farmers.length);
+        claims = new Claims[workers];
+        for (int w = 0; w < workers; w++) claims[w] = new Claims();
+        heads = new int[workers];
+        Phaser phaser = new Phaser(workers) {
+            @Override
+            protected boolean onAdvance(int phase, int registeredParties) {
+                if ((phase & 1) == 0) {
+                    arbitrate();
+                    return false;
+                }
+                return endHour();
+            }
+        };
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        List<Thread> threadList = new ArrayList<>();
+        for (int w = 0; w < workers; w++) {
+            int from = (int) ((long) farmers.length * w / workers);
+            int to = (int) ((long) farmers.length * (w + 1) / workers);
+            Claims own = claims[w];
+            Thread thread = new Thread(() -> {
+                try {
+                    runFarmers(phaser, from, to, own);
+                } catch (Throwable e) {
+                    failure.compareAndSet(null, e);
+                    phaser.forceTermination();
+                }
+            }, "farm-worker-" + w);
+            threadList.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threadList) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                phaser.forceTermination();
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while the farm was running.", e);
+            }
+        }
+        if (failure.get() instanceof RuntimeException) throw (RuntimeException) failure.get();
+        if (failure.get() instanceof Error) throw (Error) failure.get();
+        if (failure.get() != null) throw new IllegalStateException(failure.get());
+
+        SimulationResult[] results = new SimulationResult[farmers.length];
+        for (int i = 0; i < farmers.length; i++) results[i] = farmers[i].getResult();
+        return results;
+    }
+
+    /**
+     * Advances the farmers from index from to to - 1 through every hour, in step with the other workers, filing
+     * their claims in own.
+     */
+    private void runFarmers(Phaser phaser, int from, int to, Claims own) {
+        while (true) {
+            if (hourOfDay == 0) {
+                for (int i = from; i < to; i++) farmers[i].startDay();
+            }
+            own.clear();
+            for (int i = from; i < to; i++) {
+                int resource = farmers[i].select();
+                requests[i] = resource;
+                if (resource < 0) continue;
+                keys[i] = claimKey(i, farmers[i].getCurrentTask().getPriority());
+                own.add(resource, keys[i]);
+            }
+            own.sort();
+            phaser.arriveAndAwaitAdvance();
+            if (phaser.isTerminated()) return;
+            for (int i = from; i < to; i++) {
+                int resource = requests[i];
+                farmers[i].work(resource < 0 || keys[i] <= cutoffs[resource]);
+            }
+            phaser.arriveAndAwaitAdvance(); //the thread whose onAdvance() ends the run gets a positive phase back
+            if (phaser.isTerminated()) return;
+        }
+    }
+
+    /**
+     * Sets the cutoff of every resource for this hour from the workers' sorted claims. Runs on one thread while the
+     * workers wait.
+     */
+    private void arbitrate() {
+        for (int r = 0; r < RESOURCES; r++) {
+            int count = 0;
+            for (Claims c : claims) count += c.counts[r];
+            if (count <= capacity) {
+                cutoffs[r] = Long.MAX_VALUE;
+                continue;
+            }
+            deniedHours += count - capacity;
+            Arrays.fill(heads, 0);
+            long cutoff = 0;
+            for (int k = 0; k < capacity; k++) { //lowest key first: highest priority, then lowest hash
+                int best = -1;
+                for (int w = 0; w < claims.length; w++) {
+                    if (heads[w] < claims[w].counts[r]
+                            && (best < 0 || claims[w].keys[r][heads[w]] < claims[best].keys[r][heads[best]])) best = w;
+                }
+                cutoff = claims[best].keys[r][heads[best]++];
+            }
+            cutoffs[r] = cutoff;
+        }
+    }
+
+    /**
+     * Returns the arbitration key of a farmer's claim: the distance of its priority from the maximum, then a hash of
+     * the hour and the farmer, then the farmer's index.
+     */
+    private long claimKey(int farmer, int priority) {
+        long mix = (hours * 0x9E3779B97F4A7C15L + farmer) * 0xBF58476D1CE4E5B9L;
+        return ((long) (maxPriority - Math.min(priority, maxPriority)) << 40) | ((mix >>> 48) << 24) | farmer;
+    }
+
+    /**
+     * Moves the clock on by one hour. Runs on one thread while the workers wait.
+     *
+     * @return true once the last day is over.
+     */
+    private boolean endHour() {
+        hours++;
+        if (++hourOfDay == HOURS_PER_DAY) {
+            hourOfDay = 0;
+            day++;
+        }
+        return day == simulationDays;
+    }
+
+    /**
+     * The arbitration keys of the claims of one worker's farmers in the current hour, filed by resource.
+     */
+    private static final class Claims {
+
+        private final long[][] keys = new long[RESOURCES][16];
+        private final int[] counts = new int[RESOURCES];
+
+        /**
+         * Forgets the claims of the previous hour.
+         */
+        private void clear() {
+            Arrays.fill(counts, 0);
+        }
+
+        /**
+         * Files a claim under its resource.
+         */
+        private void add(int resource, long key) {
+            if (counts[resource] == keys[resource].length)
+                keys[resource] = Arrays.copyOf(keys[resource], counts[resource] * 2);
+            keys[resource][counts[resource]++] = key;
+        }
+
+        /**
+         * Sorts the claims of each resource, lowest key first.
+         */
+        private void sort() {
+            for (int r = 0; r < RESOURCES; r++) {
+                if (counts[r] > 1) Arrays.sort(keys[r], 0, counts[r]);
+            }
+        }
+    }
+
+    /**
+     * Returns how many farmer-hours were spent waiting because a fishing spot or mine level was full.
+     *
+     * @return the number of farmer-hours waited.
+     */
+    public long getDeniedHours() {
+        return deniedHours;
+    }
+
+    /**
+     * Returns the number of hours the farm clock has advanced.
+     *
+     * @return the number of hours.
+     */
+    public long getHours() {
+        return hours;
+    }
+
+    /**
+     * Main method for the farm.
+     */
+    public static void main(String[] allArgs) {
+        List<String> args = new ArrayList<>();
+        String queueType = "lazy";
+        int threads = Runtime.getRuntime().availableProcessors();
+        int spots = 0;
+        for (String arg : allArgs) {
+            if (arg.startsWith("--queue=")) queueType = arg.substring("--queue=".length());
+            else if (arg.startsWith("--threads=")) threads = Integer.parseInt(arg.substring("--threads=".length()));
+            else if (arg.startsWith("--spots=")) spots = Integer.parseInt(arg.substring("--spots=".length()));
+            else if (arg.startsWith("--")) throw new IllegalArgumentException("Illegal argument: unknown option " + arg + ".");
+            else args.add(arg);
+        }
+        if (args.size() < 5) {
+            System.out.println("Usage: java FarmSimulation  <max-priority>   <time-to-increment-priority>   " +
+                    "<total simulation-time in days>   <task-generation-probability>   <farmers>   [<seed>]   " +
+                    "[--queue=" + String.join("|", MyLifeInStarDew.QUEUE_TYPES) + "]   [--threads=N]   " +
+                    "[--spots=N]");
+            System.exit(1);
+        }
+
+        int days = Integer.parseInt(args.get(2));
+        int farmerCount = Integer.parseInt(args.get(4));
+        long seed = args.size() > 5 ? Long.parseLong(args.get(5)) : 1L;
+        if (spots == 0) spots = Math.max(1, farmerCount / 50);
+        FarmSimulation farm = new FarmSimulation(farmerCount, Integer.parseInt(args.get(0)),
+                Integer.parseInt(args.get(1)), days, Double.parseDouble(args.get(3)), seed, queueType, spots);
+
+        long start = System.nanoTime();
+        SimulationResult[] results = farm.run(threads);
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        long hourTotal = 0;
+        for (SimulationResult result : results) hourTotal += result.getHourTotal();
+        System.out.println("--- Farm simulation completed ---");
+        System.out.format("Farmers: %d (seed %d), %d days, %d per fishing spot and mine level, %d threads, %.2f s "
+                + "(%.0f farmer-hours/s)%n", farmerCount, seed, days, spots, Math.min(threads, farmerCount), seconds,
+                hourTotal / seconds);
+        System.out.println("Money made:            " + MonteCarloRunner.summarize(results, SimulationResult::getMoneyMade));
+        System.out.println("Deaths/passouts:       " + MonteCarloRunner.summarize(results, SimulationResult::getUnluckyCounter));
+        System.out.println("Tasks generated:       " + MonteCarloRunner.summarize(results, SimulationResult::getTaskCounter));
+        System.out.println("Simulation hours:      " + MonteCarloRunner.summarize(results, SimulationResult::getHourTotal));
+        System.out.println("Hours waited for a fishing spot or mine level: " + farm.getDeniedHours());
+    }
+}
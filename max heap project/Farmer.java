@@ -0,0 +1,171 @@
+import java.util.Random;
+
+/**
+ * One farmer of a FarmSimulation. A farmer has its own priority queue, task generator, energy and random numbers,
+ * and lives the same days as the single farmer of MyLifeInStarDew, except that fishing and mining tasks need a
+ * fishing spot or mine level that other farmers may have taken. Each hour is split in two: select() picks the task
+ * to work on, and after the farm has handed out the shared resources, work() does it or, if the resource was
+ * taken, puts the task back and waits.
+ *
+ * A farmer is only touched by one thread at a time. With every resource granted it produces the same totals as
+ * MyLifeInStarDew with the same settings and seed.
+ */
+public class Farmer {
+
+    private final int id;
+    private final int maxPriority;
+    private final int timeToIncrementLevel;
+    private final PriorityQueueInterface priorityQueue;
+    private final TaskGenerator taskGenerator;
+    private final Random rand = new Random();
+    private long seed;
+
+    private double luckOfTheDay;
+    private double unluckyProbablity;
+    private int hour; //hour of the farmer's day, 20 or more once the day is over
+    private int hourTotal;
+    private Task finishedTask; //last task worked on, re-added by the next select()
+    private Task currentTask; //task picked by select(), or null
+
+    private int moneyMade;
+    private int badLuck;
+    private int unluckyCounter;
+    private int taskCounter;
+    private int waitedHours;
+
+    /**
+     * Creates a farmer.
+     *
+     * @param id The index of this farmer in its farm.
+     * @param maxPriority The maximum priority any task can have.
+     * @param timeToIncrementLevel How long a task waits before its priority is incremented.
+     * @param taskGenerationProbability The probability that a task is generated in any hour.
+     * @param seed The seed of this farmer's random numbers.
+     * @param queueType One of MyLifeInStarDew.QUEUE_TYPES.
+     */
+    public Farmer(int id, int maxPriority, int timeToIncrementLevel, double taskGenerationProbability, long seed,
+                  String queueType) {
+        this.id = id;
+        this.maxPriority = maxPriority;
+        this.timeToIncrementLevel = timeToIncrementLevel;
+        this.seed = seed;
+        priorityQueue = MyLifeInStarDew.newPriorityQueue(queueType, timeToIncrementLevel, maxPriority);
+        taskGenerator = new TaskGenerator(taskGenerationProbability, seed);
+    }
+
+    /**
+     * Starts a new day: draws the day's luck and restores the farmer's energy.
+     */
+    public void startDay() {
+        seed = seed << 2; //same seed chain as MyLifeInStarDew
+        rand.setSeed(seed);
+        luckOfTheDay = rand.nextDouble();
+        unluckyProbablity = rand.nextDouble();
+        taskGenerator.resetCurrentEnergyStorage();
+        hour = 0;
+    }
+
+    /**
+     * Starts an hour: a new task may arrive, and the task to work on is taken from the queue. Does nothing once
+     * the farmer's day is over.
+     *
+     * @return the resource the task needs (see FarmSimulation.getResource()), or -1 if it needs none or there is
+     *         nothing to do.
+     */
+    public int select() {
+        currentTask = null;
+        if (isResting()) return -1;
+
+        if (taskGenerator.generateTask()) {
+            TaskInterface.TaskType typeOfTask = MyLifeInStarDew.getTaskType(rand,
+                    taskGenerator.getCurrentEnergyStorage(), luckOfTheDay);
+            priorityQueue.enqueue(taskGenerator.getNewTask(hourTotal, typeOfTask, MyLifeInStarDew.getDetailId(rand)));
+            taskCounter++;
+        }
+        if (finishedTask != null) {
+            currentTask = priorityQueue.enqueueThenDequeue(finishedTask); //re-adds removed task
+            finishedTask = null;
+        } else if (!priorityQueue.isEmpty()) {
+            currentTask = priorityQueue.dequeue();
+        }
+        return currentTask == null ? -1 : FarmSimulation.getResource(currentTask);
+    }
+
+    /**
+     * Ends the hour started by select(). The task is worked on if it was granted its resource, and put back in the
+     * queue otherwise. Does nothing once the farmer's day is over.
+     *
+     * @param granted True if the task may use the resource it needs, or needs none.
+     */
+    public void work(boolean granted) {
+        if (isResting()) return;
+        if (currentTask != null && granted) {
+            taskGenerator.decrementEnergyStorage(currentTask.getTaskType());
+            badLuck = taskGenerator.getUnlucky(currentTask, unluckyProbablity);
+            if (badLuck > 0) {
+                if (badLuck == 2) hour = 19; //Death in the Mines
+                moneyMade = (moneyMade - (moneyMade >>4));
+                unluckyCounter++;
+            }
+            priorityQueue.update(timeToIncrementLevel, maxPriority); //updates priorities and shifts
+            moneyMade = moneyMade + currentTask.getTaskType().getMoneyPerHour();
+
+            currentTask.setPriority(0);
+            currentTask.resetWaitingTime();
+            finishedTask = currentTask;
+        } else if (currentTask != null) { //the spot is taken, so the task waits with the rest of the queue
+            priorityQueue.enqueue(currentTask);
+            priorityQueue.update(timeToIncrementLevel, maxPriority);
+            waitedHours++;
+        }
+        currentTask = null;
+        if (taskGenerator.getCurrentEnergyStorage() < 0) hour = 19; //Energy dips below 0 then
+        hour++;
+        hourTotal++;
+    }
+
+    /**
+     * Returns true once this farmer's day is over, because night fell, energy ran out or the farmer died.
+     *
+     * @return true if the farmer rests for the rest of the day.
+     */
+    public boolean isResting() {
+        return hour >= 20;
+    }
+
+    /**
+     * Returns the task picked by the last select(), or null.
+     *
+     * @return the current task, or null.
+     */
+    public Task getCurrentTask() {
+        return currentTask;
+    }
+
+    /**
+     * Returns the index of this farmer in its farm.
+     *
+     * @return the index.
+     */
+    public int getId() {
+        return id;
+    }
+
+    /**
+     * Returns how many hours this farmer waited because the resource of its task was taken.
+     *
+     * @return the number of hours waited.
+     */
+    public int getWaitedHours() {
+        return waitedHours;
+    }
+
+    /**
+     * Returns the totals of this farmer so far.
+     *
+     * @return the totals.
+     */
+    public SimulationResult getResult() {
+        return new SimulationResult(moneyMade, unluckyCounter, taskCounter, hourTotal);
+    }
+}
@@ -0,0 +1,311 @@
+import java.util.stream.IntStream;
+
+/**
+ * Heap sort for object and primitive arrays. sort() is the classic in-place, single-threaded heap sort.
+ * parallelSort() splits arrays above PARALLEL_THRESHOLD elements into one chunk per worker, heap-sorts the chunks
+ * in parallel on the common fork-join pool, and then merges them through a small tournament heap of chunk heads.
+ * The merge needs a scratch array the size of the input and runs on the calling thread in O(n log k) for k chunks.
+ */
+public final class HeapSort {
+
+    /**
+     * Arrays shorter than this are sorted on the calling thread by parallelSort().
+     */
+    public static final int PARALLEL_THRESHOLD = 1 << 13;
+
+    private HeapSort() {
+    }
+
+    /**
+     * Sorts the given array into ascending order, in-place.
+     *
+     * @param a The array to sort.
+     * @param <T> The type of element.
+     */
+    public static <T extends Comparable<? super T>> void sort(T[] a) {
+        sort(a, 0, a.length);
+    }
+
+    /**
+     * Sorts the range [from, to) of the given array into ascending order, in-place.
+     *
+     * @param a The array to sort.
+     * @param from The first index to sort.
+     * @param to One past the last index to sort.
+     * @param <T> The type of element.
+     */
+    public static <T extends Comparable<? super T>> void sort(T[] a, int from, int to) {
+        int n = to - from;
+        for (int i = n/2 - 1; i >= 0; i--) siftDown(a, from, i, n);
+        for (int end = n - 1; end > 0; end--) {
+            T b = a[from];
+            a[from] = a[from + end];
+            a[from + end] = b;
+            siftDown(a, from, 0, end);
+        }
+    }
+
+    /**
+     * Sorts the given array into ascending order, in parallel for large arrays.
+     *
+     * @param a The array to sort.
+     * @param <T> The type of element.
+     */
+    public static <T extends Comparable<? super T>> void parallelSort(T[] a) {
+        int k = chunkCount(a.length);
+        if (k == 1) {
+            sort(a);
+            return;
+        }
+        IntStream.range(0, k).parallel().forEach(c -> sort(a, chunkStart(a.length, k, c), chunkStart(a.length, k, c + 1)));
+
+        int[] heads = new int[k];
+        int[] ends = new int[k];
+        int[] tournament = new int[k];
+        for (int c = 0; c < k; c++) {
+            heads[c] = chunkStart(a.length, k, c);
+            ends[c] = chunkStart(a.length, k, c + 1);
+            tournament[c] = c;
+        }
+        int size = k;
+        for (int i = k/2 - 1; i >= 0; i--) siftTournament(a, heads, tournament, i, size);
+
+        Object[] merged = new Object[a.length];
+        for (int out = 0; out < merged.length; out++) {
+            int c = tournament[0];
+            merged[out] = a[heads[c]++];
+            if (heads[c] == ends[c]) tournament[0] = tournament[--size];
+            siftTournament(a, heads, tournament, 0, size);
+        }
+        System.arraycopy(merged, 0, a, 0, a.length);
+    }
+
+    /**
+     * Sorts the given array into ascending order, in-place.
+     *
+     * @param a The array to sort.
+     */
+    public static void sort(int[] a) {
+        sort(a, 0, a.length);
+    }
+
+    /**
+     * Sorts the range [from, to) of the given array into ascending order, in-place.
+     *
+     * @param a The array to sort.
+     * @param from The first index to sort.
+     * @param to One past the last index to sort.
+     */
+    public static void sort(int[] a, int from, int to) {
+        int n = to - from;
+        for (int i = n/2 - 1; i >= 0; i--) siftDown(a, from, i, n);
+        for (int end = n - 1; end > 0; end--) {
+            int b = a[from];
+            a[from] = a[from + end];
+            a[from + end] = b;
+            siftDown(a, from, 0, end);
+        }
+    }
+
+    /**
+     * Sorts the given array into ascending order, in parallel for large arrays.
+     *
+     * @param a The array to sort.
+     */
+    public static void parallelSort(int[] a) {
+        int k = chunkCount(a.length);
+        if (k == 1) {
+            sort(a);
+            return;
+        }
+        IntStream.range(0, k).parallel().forEach(c -> sort(a, chunkStart(a.length, k, c), chunkStart(a.length, k, c + 1)));
+
+        int[] heads = new int[k];
+        int[] ends = new int[k];
+        int[] tournament = new int[k];
+        for (int c = 0; c < k; c++) {
+            heads[c] = chunkStart(a.length, k, c);
+            ends[c] = chunkStart(a.length, k, c + 1);
+            tournament[c] = c;
+        }
+        int size = k;
+        for (int i = k/2 - 1; i >= 0; i--) siftTournament(a, heads, tournament, i, size);
+
+        int[] merged = new int[a.length];
+        for (int out = 0; out < merged.length; out++) {
+            int c = tournament[0];
+            merged[out] = a[heads[c]++];
+            if (heads[c] == ends[c]) tournament[0] = tournament[--size];
+            siftTournament(a, heads, tournament, 0, size);
+        }
+        System.arraycopy(merged, 0, a, 0, a.length);
+    }
+
+    /**
+     * Sorts the given array into ascending order, in-place.
+     *
+     * @param a The array to sort.
+     */
+    public static void sort(long[] a) {
+        sort(a, 0, a.length);
+    }
+
+    /**
+     * Sorts the range [from, to) of the given array into ascending order, in-place.
+     *
+     * @param a The array to sort.
+     * @param from The first index to sort.
+     * @param to One past the last index to sort.
+     */
+    public static void sort(long[] a, int from, int to) {
+        int n = to - from;
+        for (int i = n/2 - 1; i >= 0; i--) siftDown(a, from, i, n);
+        for (int end = n - 1; end > 0; end--) {
+            long b = a[from];
+            a[from] = a[from + end];
+            a[from + end] = b;
+            siftDown(a, from, 0, end);
+        }
+    }
+
+    /**
+     * Sorts the given array into ascending order, in parallel for large arrays.
+     *
+     * @param a The array to sort.
+     */
+    public static void parallelSort(long[] a) {
+        int k = chunkCount(a.length);
+        if (k == 1) {
+            sort(a);
+            return;
+        }
+        IntStream.range(0, k).parallel().forEach(c -> sort(a, chunkStart(a.length, k, c), chunkStart(a.length, k, c + 1)));
+
+        int[] heads = new int[k];
+        int[] ends = new int[k];
+        int[] tournament = new int[k];
+        for (int c = 0; c < k; c++) {
+            heads[c] = chunkStart(a.length, k, c);
+            ends[c] = chunkStart(a.length, k, c + 1);
+            tournament[c] = c;
+        }
+        int size = k;
+        for (int i = k/2 - 1; i >= 0; i--) siftTournament(a, heads, tournament, i, size);
+
+        long[] merged = new long[a.length];
+        for (int out = 0; out < merged.length; out++) {
+            int c = tournament[0];
+            merged[out] = a[heads[c]++];
+            if (heads[c] == ends[c]) tournament[0] = tournament[--size];
+            siftTournament(a, heads, tournament, 0, size);
+        }
+        System.arraycopy(merged, 0, a, 0, a.length);
+    }
+
+    /**
+     * Returns how many chunks parallelSort() splits an array of length n into.
+     */
+    private static int chunkCount(int n) {
+        if (n < PARALLEL_THRESHOLD) return 1;
+        int workers = Runtime.getRuntime().availableProcessors();
+        return Math.max(1, Math.min(workers, n / (PARALLEL_THRESHOLD / 2)));
+    }
+
+    /**
+     * Returns the first index of chunk c when an array of length n is split into k chunks.
+     */
+    private static int chunkStart(int n, int k, int c) {
+        return (int)((long)n * c / k);
+    }
+
+    /**
+     * Sifts the element at offset i of the max heap a[from, from + n) down.
+     */
+    private static <T extends Comparable<? super T>> void siftDown(T[] a, int from, int i, int n) {
+        T value = a[from + i];
+        while (2*i + 1 < n) {
+            int c = 2*i + 1;
+            if (c + 1 < n && a[from + c + 1].compareTo(a[from + c]) > 0) c++;
+            if (a[from + c].compareTo(value) <= 0) break;
+            a[from + i] = a[from + c];
+            i = c;
+        }
+        a[from + i] = value;
+    }
+
+    /**
+     * Sifts the element at offset i of the max heap a[from, from + n) down.
+     */
+    private static void siftDown(int[] a, int from, int i, int n) {
+        int value = a[from + i];
+        while (2*i + 1 < n) {
+            int c = 2*i + 1;
+            if (c + 1 < n && a[from + c + 1] > a[from + c]) c++;
+            if (a[from + c] <= value) break;
+            a[from + i] = a[from + c];
+            i = c;
+        }
+        a[from + i] = value;
+    }
+
+    /**
+     * Sifts the element at offset i of the max heap a[from, from + n) down.
+     */
+    private static void siftDown(long[] a, int from, int i, int n) {
+        long value = a[from + i];
+        while (2*i + 1 < n) {
+            int c = 2*i + 1;
+            if (c + 1 < n && a[from + c + 1] > a[from + c]) c++;
+            if (a[from + c] <= value) break;
+            a[from + i] = a[from + c];
+            i = c;
+        }
+        a[from + i] = value;
+    }
+
+    /**
+     * Sifts entry i of a min heap of chunk numbers, ordered by each chunk's current head element, down.
+     */
+    private static <T extends Comparable<? super T>> void siftTournament(T[] a, int[] heads, int[] tournament,
+                                                                         int i, int size) {
+        int chunk = tournament[i];
+        while (2*i + 1 < size) {
+            int c = 2*i + 1;
+            if (c + 1 < size && a[heads[tournament[c + 1]]].compareTo(a[heads[tournament[c]]]) < 0) c++;
+            if (a[heads[tournament[c]]].compareTo(a[heads[chunk]]) >= 0) break;
+            tournament[i] = tournament[c];
+            i = c;
+        }
+        tournament[i] = chunk;
+    }
+
+    /**
+     * Sifts entry i of a min heap of chunk numbers, ordered by each chunk's current head element, down.
+     */
+    private static void siftTournament(int[] a, int[] heads, int[] tournament, int i, int size) {
+        int chunk = tournament[i];
+        while (2*i + 1 < size) {
+            int c = 2*i + 1;
+            if (c + 1 < size && a[heads[tournament[c + 1]]] < a[heads[tournament[c]]]) c++;
+            if (a[heads[tournament[c]]] >= a[heads[chunk]]) break;
+            tournament[i] = tournament[c];
+            i = c;
+        }
+        tournament[i] = chunk;
+    }
+
+    /**
+     * Sifts entry i of a min heap of chunk numbers, ordered by each chunk's current head element, down.
+     */
+    private static void siftTournament(long[] a, int[] heads, int[] tournament, int i, int size) {
+        int chunk = tournament[i];
+        while (2*i + 1 < size) {
+            int c = 2*i + 1;
+            if (c + 1 < size && a[heads[tournament[c + 1]]] < a[heads[tournament[c]]]) c++;
+            if (a[heads[tournament[c]]] >= a[heads[chunk]]) break;
+            tournament[i] = tournament[c];
+            i = c;
+        }
+        tournament[i] = chunk;
+    }
+}
@@ -0,0 +1,380 @@
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * MaxHeap that hands out a handle for every inserted element and tracks where that element sits in the heap, so a
+ * single element can be re-sifted or removed in O(log n) without searching for it. All methods that take an index
+ * assume indices start at 1.
+ *
+ * A handle is a non-negative long made of a slot number in its low 32 bits and the generation of that slot above
+ * them. Slots are reused once their element leaves the heap, but every release bumps the slot's generation, so a
+ * stale handle never aliases the element that reuses its slot: contains() returns false for it and the other
+ * handle methods throw NoSuchElementException.
+ *
+ * @param <T> The type of element in this IndexedMaxHeap.
+ */
+public class IndexedMaxHeap<T extends Comparable<T>> {
+
+    protected int heapsize;
+    protected Comparable[] a;
+    protected int[] slots;
+
+    private int[] positions;
+    private int[] generations;
+    private int[] freeSlots;
+    private int freeCount;
+    private int nextSlot;
+    private long lastHandle = -1;
+
+    /**
+     * Makes a new IndexedMaxHeap with the given capacity.
+     *
+     * @param initialCapacity The initial capacity.
+     */
+    public IndexedMaxHeap(int initialCapacity){
+        int capacity = Math.max(initialCapacity, 1);
+        a = new Comparable[capacity];
+        slots = new int[capacity];
+        positions = new int[capacity];
+        generations = new int[capacity];
+        freeSlots = new int[capacity];
+    }
+
+    /**
+     * Returns the element at the specified index.
+     *
+     * @param i An index in this heap, where the first index is 1.
+     * @return The element at the index.
+     */
+    public T get(int i){
+        if (i > heapsize) throw new ArrayIndexOutOfBoundsException();
+        return (T)a[i-1];
+    }
+
+    /**
+     * Returns the element for the given handle.
+     *
+     * @param handle A handle returned by insert().
+     * @return The element for the handle.
+     */
+    public T getByHandle(long handle){
+        return (T)a[positionOf(handle)-1];
+    }
+
+    /**
+     * Returns true if the given handle belongs to an element currently in this heap.
+     *
+     * @param handle A handle returned by insert().
+     * @return true if the handle's element is in this heap.
+     */
+    public boolean contains(long handle){
+        int slot = (int)handle;
+        return handle >= 0 && slot >= 0 && slot < nextSlot && positions[slot] != 0
+                && generations[slot] == (int)(handle >>> 32);
+    }
+
+    /**
+     * Returns the handle given to the element inserted by the last insert() or pushPop(), or -1 if pushPop()
+     * returned that element straight away.
+     *
+     * @return the handle of the last inserted element, or -1.
+     */
+    public long getLastHandle(){
+        return lastHandle;
+    }
+
+    /**
+     * Returns the parent of the specified index.
+     *
+     * @param i An index in this heap, where the first index is 1.
+     * @return The parent index.
+     */
+    public int parentIndex(int i){
+        return i/2;
+    }
+
+    /**
+     * Returns the left child of the specified index.
+     *
+     * @param i An index in this heap, where the first index is 1.
+     * @return The left child index.
+     */
+    public int leftChildIndex(int i){
+        return 2*i;
+    }
+
+    /**
+     * Returns the right child of the specified index.
+     *
+     * @param i An index in this heap, where the first index is 1.
+     * @return The right child index.
+     */
+    public int rightChildIndex(int i){
+        return 2*i +1;
+    }
+
+    /**
+     * Returns the number of elements in this heap.
+     *
+     * @return the number of elements in this heap.
+     */
+    public int getSize(){
+        return heapsize;
+    }
+
+    /**
+     * Sifts elements 'down' the heap to satisfy the heap condition, starting at the specified index.
+     *
+     * @param i An index in this heap, where the first index is 1.
+     */
+    public void heapify(int i){
+        Comparable value = a[i-1];
+        int slot = slots[i-1];
+        int half = heapsize / 2;
+        int compares = 0, moves = 0;
+
+        while (i <= half){
+            int largest = leftChildIndex(i);
+            int r = rightChildIndex(i);
+
+            if (r <= heapsize){
+                compares++;
+                if (a[r-1].compareTo(a[largest-1]) > 0){
+                    largest = r;
+                }
+            }
+            compares++;
+            if (a[largest-1].compareTo(value) <= 0){
+                break;
+            }
+            move(largest, i);
+            i = largest;
+            moves++;
+        }
+        place(i, value, slot);
+        if (SchedulerMetrics.ENABLED) SchedulerMetrics.countSift(compares, moves);
+    }
+
+    /**
+     * Sifts an element 'up' the heap to satisfy the heap condition, starting at the specified index.
+     *
+     * @param i An index in this heap, where the first index is 1.
+     */
+    public void heapifyUp(int i){
+        Comparable value = a[i-1];
+        int slot = slots[i-1];
+        int compares = 0, moves = 0;
+
+        while (i > 1){
+            int parent = parentIndex(i);
+            compares++;
+            if (value.compareTo(a[parent-1]) <= 0){
+                break;
+            }
+            move(parent, i);
+            i = parent;
+            moves++;
+        }
+        place(i, value, slot);
+        if (SchedulerMetrics.ENABLED) SchedulerMetrics.countSift(compares, moves);
+    }
+
+    /**
+     * Inserts the given element into this heap.
+     *
+     * @param data The element to insert.
+     * @return a handle for the inserted element.
+     */
+    public long insert(Comparable data){
+        if (data == null){
+            throw new NullPointerException();
+        }
+        if (a.length == heapsize){
+            expandCapacity();
+        }
+        int slot = allocateSlot();
+        heapsize++;
+        place(heapsize, data, slot);
+        heapifyUp(heapsize);
+        if (SchedulerMetrics.ENABLED) SchedulerMetrics.countOperation();
+        lastHandle = handleOf(slot);
+        return lastHandle;
+    }
+
+    /**
+     * Removes and returns the greatest (first) element of this heap.
+     *
+     * @return the greatest (first) element of this heap.
+     */
+    public T extractMax(){
+        if (heapsize == 0){
+            throw new NoSuchElementException();
+        }
+        return removeAt(1);
+    }
+
+    /**
+     * Inserts the given element and then removes and returns the greatest element of this heap, in a single sift.
+     * If the inserted element stays in the heap, it gets a handle just as from insert(), which getLastHandle()
+     * returns.
+     *
+     * @param data The element to insert.
+     * @return the greatest element of this heap, which may be data itself.
+     */
+    public T pushPop(Comparable data){
+        if (data == null){
+            throw new NullPointerException();
+        }
+        if (SchedulerMetrics.ENABLED) {
+            SchedulerMetrics.countOperation();
+            if (heapsize > 0) SchedulerMetrics.countSift(1, 0);
+        }
+        if (heapsize == 0 || a[0].compareTo(data) <= 0){
+            lastHandle = -1;
+            return (T)data;
+        }
+        T b = (T)a[0];
+        releaseSlot(slots[0]);
+        int slot = allocateSlot();
+        place(1, data, slot);
+        heapify(1);
+        lastHandle = handleOf(slot);
+        return b;
+    }
+
+    /**
+     * Restores the heap condition after the element for the given handle has become greater.
+     *
+     * @param handle A handle returned by insert().
+     */
+    public void increaseKey(long handle){
+        heapifyUp(positionOf(handle));
+    }
+
+    /**
+     * Restores the heap condition after the element for the given handle has become smaller.
+     *
+     * @param handle A handle returned by insert().
+     */
+    public void decreaseKey(long handle){
+        heapify(positionOf(handle));
+    }
+
+    /**
+     * Removes and returns the element for the given handle.
+     *
+     * @param handle A handle returned by insert().
+     * @return the removed element.
+     */
+    public T remove(long handle){
+        return removeAt(positionOf(handle));
+    }
+
+    /**
+     * Returns the index of the element for the given handle.
+     *
+     * @param handle A handle returned by insert().
+     * @return the index of the handle's element, where the first index is 1.
+     */
+    protected int positionOf(long handle){
+        if (!contains(handle)) throw new NoSuchElementException();
+        return positions[(int)handle];
+    }
+
+    /**
+     * Returns the handle of the element currently in the given slot.
+     *
+     * @param slot A slot of this heap.
+     * @return the handle, or -1 if the slot is empty.
+     */
+    protected long handleOf(int slot){
+        if (slot < 0 || slot >= nextSlot || positions[slot] == 0) return -1;
+        return ((long)generations[slot] << 32) | slot;
+    }
+
+    /**
+     * Returns one more than the highest slot ever used, so that handleOf() covers every element for slots below it.
+     *
+     * @return the number of slots in use or free.
+     */
+    protected int getSlotCount(){
+        return nextSlot;
+    }
+
+    /**
+     * Removes the element at the given index, filling the hole with the last element.
+     *
+     * @param i An index in this heap, where the first index is 1.
+     * @return the removed element.
+     */
+    private T removeAt(int i){
+        T b = (T)a[i-1];
+        releaseSlot(slots[i-1]);
+        heapsize--;
+        if (i <= heapsize){
+            place(i, a[heapsize], slots[heapsize]);
+            if (i > 1 && a[i-1].compareTo(a[parentIndex(i)-1]) > 0) heapifyUp(i);
+            else heapify(i);
+        }
+        a[heapsize] = null;
+        if (SchedulerMetrics.ENABLED) SchedulerMetrics.countOperation();
+        return b;
+    }
+
+    /**
+     * Moves the element at index 'from' to index 'to', keeping its slot pointed at it.
+     */
+    private void move(int from, int to){
+        place(to, a[from-1], slots[from-1]);
+    }
+
+    /**
+     * Stores an element and its slot at the given index.
+     */
+    private void place(int i, Comparable value, int slot){
+        a[i-1] = value;
+        slots[i-1] = slot;
+        positions[slot] = i;
+    }
+
+    /**
+     * Returns an unused slot, preferring released ones.
+     */
+    private int allocateSlot(){
+        if (freeCount > 0){
+            return freeSlots[--freeCount];
+        }
+        return nextSlot++;
+    }
+
+    /**
+     * Marks the given slot as no longer in the heap and makes it available for reuse under the next generation, so
+     * handles to its old element stop matching.
+     */
+    private void releaseSlot(int slot){
+        positions[slot] = 0;
+        generations[slot] = (generations[slot] + 1) & Integer.MAX_VALUE;
+        freeSlots[freeCount++] = slot;
+    }
+
+    /**
+     * Doubles the capacity of this heap.
+     */
+    private void expandCapacity(){
+        int capacity = a.length*2;
+        a = Arrays.copyOf(a, capacity);
+        slots = Arrays.copyOf(slots, capacity);
+        positions = Arrays.copyOf(positions, capacity);
+        generations = Arrays.copyOf(generations, capacity);
+        freeSlots = Arrays.copyOf(freeSlots, capacity);
+    }
+
+    /**
+     * Returns a string representation of this heap.
+     *
+     * @return a string representation of this heap.
+     */
+    public String toString(){
+        return Arrays.toString(Arrays.copyOf(a, heapsize));
+    }
+}
@@ -0,0 +1,105 @@
+/**
+ * Provides priority queue management via enqueue, dequeue, isEmpty and update methods, plus handle-based
+ * reprioritizing and cancelling of single tasks in O(log n).
+ *
+ * @author Spencer Pattillo
+ */
+public class IndexedPriorityQueue extends IndexedMaxHeap<Task> implements PriorityQueueInterface {
+
+    /**
+     * Creates a new priority queue with the provided initial capacity.
+     *
+     * @param capacity The initial capacity of this queue.
+     */
+    public IndexedPriorityQueue(int capacity) {
+        super(capacity);
+    }
+
+    /**
+     * Creates a new priority queue with an initial capacity of 32.
+     */
+    public IndexedPriorityQueue() {
+        this(32);
+    }
+
+    /**
+     * Inserts the given task into this priority queue. Use insert() or getLastHandle() to keep the task's handle.
+     *
+     * @param task - Task to enqueue.
+     */
+    @Override
+    public void enqueue(Object task) {
+        if (task == null){
+            throw new NullPointerException();
+        }
+        insert((Task)task);
+    }
+
+    /**
+     * Removes and returns the task with the highest priority in this queue.
+     *
+     * @return the task with the highest priority in this queue.
+     */
+    @Override
+    public Task dequeue() {
+        return extractMax();
+    }
+
+    /**
+     * Inserts the given task, then removes and returns the task with the highest priority in this queue.
+     *
+     * @param task - Task to enqueue.
+     * @return the task with the highest priority in this queue, which may be the given task.
+     */
+    @Override
+    public Task enqueueThenDequeue(Object task) {
+        if (task == null){
+            throw new NullPointerException();
+        }
+        return pushPop((Task)task);
+    }
+
+    /**
+     * Returns true if this queue is empty.
+     *
+     * @return true if this queue is empty.
+     */
+    @Override
+    public boolean isEmpty() {
+        return getSize() == 0;
+    }
+
+    /**
+     * Sets the priority of the queued task with the given handle and moves it to its new place in the queue.
+     *
+     * @param handle A handle returned by insert().
+     * @param priority The new priority of the task.
+     */
+    public void reprioritize(long handle, int priority) {
+        Task task = getByHandle(handle);
+        int oldPriority = task.getPriority();
+        task.setPriority(priority);
+        if (priority > oldPriority) increaseKey(handle);
+        else decreaseKey(handle);
+    }
+
+    /**
+     * Increases the waiting times of all currently queued tasks. Each task that has passed timeToIncrementPriority
+     * will have its priority increased, up to the provided maximum, and is moved up with increaseKey(). Tasks are
+     * visited by handle rather than by index, so a task moved up is neither missed nor aged twice.
+     *
+     * @param timeToIncrementPriority How long each task waits for before its priority is incremented.
+     * @param maxPriority The maximum priority any task can have.
+     */
+    @Override
+    public void update(int timeToIncrementPriority, int maxPriority) {
+        for (int slot = 0; slot < getSlotCount(); slot++) {
+            long handle = handleOf(slot);
+            if (handle < 0) continue;
+            Task task = getByHandle(handle);
+            task.incrementWaitingTime();
+            if (task.updatePriority(timeToIncrementPriority, maxPriority))
+                increaseKey(handle);
+        }
+    }
+}
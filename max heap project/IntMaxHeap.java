@@ -0,0 +1,190 @@
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * MaxHeap of primitive ints. Mirrors the MaxHeap API without boxing the keys. All methods assume indices start at 1.
+ */
+public class IntMaxHeap {
+
+    protected int heapsize;
+    protected int[] a;
+
+    /**
+     * Makes a new IntMaxHeap with the given capacity.
+     *
+     * @param initialCapacity The initial capacity.
+     */
+    public IntMaxHeap(int initialCapacity){
+        a = new int[Math.max(initialCapacity, 1)];
+    }
+
+    /**
+     * Makes a new IntMaxHeap from the given array.
+     *
+     * @param array An array of ints.
+     */
+    public IntMaxHeap(int... array){
+        a = new int[Math.max(array.length, 1)];
+        for (int c : array) insert(c);
+    }
+
+    /**
+     * Returns the element at the specified index.
+     *
+     * @param i An index in this heap, where the first index is 1.
+     * @return The element at the index.
+     */
+    public int get(int i) {
+        if (i > heapsize) throw new ArrayIndexOutOfBoundsException();
+        return a[i-1];
+    }
+
+    /**
+     * Sets the element at the specified index.
+     *
+     * @param i An index in this heap, where the first index is 1.
+     * @param data The value to store.
+     */
+    public void set(int i, int data) {a[i-1] = data;}
+
+    /**
+     * Returns the parent of the specified index.
+     *
+     * @param i An index in this heap, where the first index is 1.
+     * @return The parent index.
+     */
+    public int parentIndex(int i){
+        return i/2;
+    }
+
+    /**
+     * Returns the left child of the specified index.
+     *
+     * @param i An index in this heap, where the first index is 1.
+     * @return The left child index.
+     */
+    public int leftChildIndex(int i){
+        return 2*i;
+    }
+
+    /**
+     * Returns the right child of the specified index.
+     *
+     * @param i An index in this heap, where the first index is 1.
+     * @return The right child index.
+     */
+    public int rightChildIndex(int i){
+        return 2*i +1;
+    }
+
+    /**
+     * Returns the number of elements in this heap.
+     *
+     * @return the number of elements in this heap.
+     */
+    public int getSize(){
+        return heapsize;
+    }
+
+    /**
+     * Sifts elements 'down' the heap to satisfy the heap condition, starting at the specified index.
+     *
+     * @param i An index in this heap, where the first index is 1.
+     */
+    public void heapify(int i){
+        int value = a[i-1];
+        int half = heapsize / 2;
+        while (i <= half) {
+            int child = leftChildIndex(i);
+            if (child < heapsize && a[child] > a[child-1]) child++;
+            if (a[child-1] <= value) break;
+            a[i-1] = a[child-1];
+            i = child;
+        }
+        a[i-1] = value;
+    }
+
+    /**
+     * Sifts an element 'up' the heap to satisfy the heap condition, starting at the specified index.
+     *
+     * @param i An index in this heap, where the first index is 1.
+     */
+    public void heapifyUp(int i){
+        int value = a[i-1];
+        while (i > 1) {
+            int parent = parentIndex(i);
+            if (a[parent-1] >= value) break;
+            a[i-1] = a[parent-1];
+            i = parent;
+        }
+        a[i-1] = value;
+    }
+
+    /**
+     * Inserts the given element into this heap.
+     *
+     * @param data The element to insert.
+     */
+    public void insert(int data){
+        if (a.length == heapsize){
+            expandCapacity();
+        }
+        a[heapsize] = data;
+        heapsize++;
+        heapifyUp(heapsize);
+    }
+
+    /**
+     * Removes and returns the greatest (first) element of this heap.
+     *
+     * @return the greatest (first) element of this heap.
+     */
+    public int extractMax(){
+        if (heapsize == 0){
+            throw new NoSuchElementException();
+        }
+        int b = a[0];
+        heapsize--;
+        if (heapsize > 0) {
+            a[0] = a[heapsize];
+            heapify(1);
+        }
+        return b;
+    }
+
+    /**
+     * Sorts the elements of this heap in-place into ascending order. Afterwards the heap is empty.
+     *
+     * @return the sorted elements.
+     */
+    public int[] heapSort(){
+        int n = heapsize;
+        for (int i = heapsize / 2; i >= 1; i--) heapify(i);
+
+        for (int i = heapsize; i >= 2; i--){
+            int b = a[0];
+            a[0] = a[i-1];
+            a[i-1] = b;
+            heapsize--;
+            heapify(1);
+        }
+        heapsize = 0;
+        return Arrays.copyOf(a, n);
+    }
+
+    /**
+     * Doubles the capacity of this heap.
+     */
+    private void expandCapacity() {
+        a = Arrays.copyOf(a, a.length*2);
+    }
+
+    /**
+     * Returns a string representation of this heap.
+     *
+     * @return a string representation of this heap.
+     */
+    public String toString() {
+        return Arrays.toString(Arrays.copyOf(a, heapsize));
+    }
+}
@@ -0,0 +1,214 @@
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.function.ToLongFunction;
+
+/**
+ * Max heap ordered by a long key that a key extractor computes for each element. The key is cached next to the
+ * element, so sifting compares primitive longs and never calls compareTo() or the extractor. When an element
+ * changes in a way that changes its key, refreshKey() must be called for its index. Elements with equal keys come
+ * out in no particular order. All methods that take an index assume indices start at 1.
+ *
+ * @param <T> The type of element in this KeyedMaxHeap.
+ */
+public class KeyedMaxHeap<T> {
+
+    protected int heapsize;
+    protected Object[] a;
+    protected long[] keys;
+    private final ToLongFunction<? super T> keyExtractor;
+
+    /**
+     * Makes a new KeyedMaxHeap with the given capacity.
+     *
+     * @param initialCapacity The initial capacity.
+     * @param keyExtractor Computes the key of an element. Greater keys come out first.
+     */
+    public KeyedMaxHeap(int initialCapacity, ToLongFunction<? super T> keyExtractor) {
+        if (keyExtractor == null){
+            throw new NullPointerException();
+        }
+        int capacity = Math.max(initialCapacity, 1);
+        a = new Object[capacity];
+        keys = new long[capacity];
+        this.keyExtractor = keyExtractor;
+    }
+
+    /**
+     * Returns the element at the specified index.
+     *
+     * @param i An index in this heap, where the first index is 1.
+     * @return The element at the index.
+     */
+    public T get(int i) {
+        if (i > heapsize) throw new ArrayIndexOutOfBoundsException();
+        return (T)a[i-1];
+    }
+
+    /**
+     * Returns the cached key of the element at the specified index.
+     *
+     * @param i An index in this heap, where the first index is 1.
+     * @return The key of the element at the index.
+     */
+    public long getKey(int i) {
+        if (i > heapsize) throw new ArrayIndexOutOfBoundsException();
+        return keys[i-1];
+    }
+
+    /**
+     * Returns the number of elements in this heap.
+     *
+     * @return the number of elements in this heap.
+     */
+    public int getSize() {
+        return heapsize;
+    }
+
+    /**
+     * Sifts elements 'down' the heap to satisfy the heap condition, starting at the specified index.
+     *
+     * @param i An index in this heap, where the first index is 1.
+     */
+    public void heapify(int i) {
+        Object value = a[i-1];
+        long key = keys[i-1];
+        int half = heapsize / 2;
+        int compares = 0, moves = 0;
+
+        while (i <= half){
+            int largest = 2*i;
+            if (largest < heapsize){
+                compares++;
+                if (keys[largest] > keys[largest-1]) largest++;
+            }
+            compares++;
+            if (keys[largest-1] <= key) break;
+            a[i-1] = a[largest-1];
+            keys[i-1] = keys[largest-1];
+            i = largest;
+            moves++;
+        }
+        a[i-1] = value;
+        keys[i-1] = key;
+        if (SchedulerMetrics.ENABLED) SchedulerMetrics.countSift(compares, moves);
+    }
+
+    /**
+     * Sifts elements 'up' the heap to satisfy the heap condition, starting at the specified index.
+     *
+     * @param i An index in this heap, where the first index is 1.
+     */
+    public void heapifyUp(int i) {
+        Object value = a[i-1];
+        long key = keys[i-1];
+        int compares = 0, moves = 0;
+
+        while (i > 1){
+            int parent = i / 2;
+            compares++;
+            if (key <= keys[parent-1]) break;
+            a[i-1] = a[parent-1];
+            keys[i-1] = keys[parent-1];
+            i = parent;
+            moves++;
+        }
+        a[i-1] = value;
+        keys[i-1] = key;
+        if (SchedulerMetrics.ENABLED) SchedulerMetrics.countSift(compares, moves);
+    }
+
+    /**
+     * Recomputes the key of the element at the specified index and moves it to its new place.
+     *
+     * @param i An index in this heap, where the first index is 1.
+     */
+    public void refreshKey(int i) {
+        if (i > heapsize) throw new ArrayIndexOutOfBoundsException();
+        long old = keys[i-1];
+        keys[i-1] = keyExtractor.applyAsLong((T)a[i-1]);
+        if (keys[i-1] > old) heapifyUp(i);
+        else if (keys[i-1] < old) heapify(i);
+    }
+
+    /**
+     * Inserts the given element into this heap.
+     *
+     * @param data The element to insert.
+     */
+    public void insert(T data) {
+        if (data == null){
+            throw new NullPointerException();
+        }
+        if (a.length == heapsize){
+            a = Arrays.copyOf(a, a.length * 2);
+            keys = Arrays.copyOf(keys, keys.length * 2);
+        }
+        a[heapsize] = data;
+        keys[heapsize] = keyExtractor.applyAsLong(data);
+        heapsize++;
+        heapifyUp(heapsize);
+        if (SchedulerMetrics.ENABLED) SchedulerMetrics.countOperation();
+    }
+
+    /**
+     * Returns the element with the greatest key without removing it.
+     *
+     * @return the element with the greatest key.
+     */
+    public T peek() {
+        if (heapsize == 0) throw new NoSuchElementException();
+        return (T)a[0];
+    }
+
+    /**
+     * Removes and returns the element with the greatest key.
+     *
+     * @return the element with the greatest key.
+     */
+    public T extractMax() {
+        if (heapsize == 0){
+            throw new NoSuchElementException();
+        }
+        T b = (T)a[0];
+        heapsize--;
+        a[0] = a[heapsize];
+        keys[0] = keys[heapsize];
+        a[heapsize] = null;
+        if (heapsize > 0) heapify(1);
+        if (SchedulerMetrics.ENABLED) SchedulerMetrics.countOperation();
+        return b;
+    }
+
+    /**
+     * Inserts the given element, then removes and returns the element with the greatest key. If the given element's
+     * key is at least as great as every key in the heap, the element is returned straight away.
+     *
+     * @param data The element to insert.
+     * @return the element with the greatest key, which may be data itself.
+     */
+    public T pushPop(T data) {
+        if (data == null){
+            throw new NullPointerException();
+        }
+        long key = keyExtractor.applyAsLong(data);
+        if (SchedulerMetrics.ENABLED) {
+            SchedulerMetrics.countOperation();
+            if (heapsize > 0) SchedulerMetrics.countSift(1, 0);
+        }
+        if (heapsize == 0 || keys[0] <= key) return data;
+        T b = (T)a[0];
+        a[0] = data;
+        keys[0] = key;
+        heapify(1);
+        return b;
+    }
+
+    /**
+     * Returns a string representation of this heap.
+     *
+     * @return a string representation of this heap.
+     */
+    public String toString() {
+        return Arrays.toString(Arrays.copyOf(a, heapsize));
+    }
+}
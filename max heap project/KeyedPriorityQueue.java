@@ -0,0 +1,110 @@
+/**
+ * Provides priority queue management via enqueue, dequeue, isEmpty and update methods, ordered by a packed 64-bit
+ * key per task instead of Task.compareTo(). The key holds the priority in the high 32 bits and the inverted
+ * hourCreated in the low 32 bits, so comparing keys gives the same order as compareTo().
+ *
+ * @author Spencer Pattillo
+ */
+public class KeyedPriorityQueue extends KeyedMaxHeap<Task> implements PriorityQueueInterface {
+
+    /**
+     * Creates a new priority queue with the provided initial capacity.
+     *
+     * @param capacity The initial capacity of this queue.
+     */
+    public KeyedPriorityQueue(int capacity) {
+        super(capacity, KeyedPriorityQueue::taskKey);
+    }
+
+    /**
+     * Creates a new priority queue with an initial capacity of 32.
+     */
+    public KeyedPriorityQueue() {
+        this(32);
+    }
+
+    /**
+     * Returns the packed key of the given task: higher priority first, then earlier hourCreated first.
+     *
+     * @param task A task.
+     * @return the key of the task.
+     */
+    public static long taskKey(Task task) {
+        return ((long)task.getPriority() << 32) + (Integer.MAX_VALUE - (long)task.getHourCreated());
+    }
+
+    /**
+     * Inserts the given task into this priority queue.
+     *
+     * @param task - Task to enqueue.
+     */
+    @Override
+    public void enqueue(Object task) {
+        if (task == null){
+            throw new NullPointerException();
+        }
+        insert((Task)task);
+    }
+
+    /**
+     * Removes and returns the task with the highest priority in this queue.
+     *
+     * @return the task with the highest priority in this queue.
+     */
+    @Override
+    public Task dequeue() {
+        return extractMax();
+    }
+
+    /**
+     * Inserts the given task, then removes and returns the task with the highest priority in this queue.
+     *
+     * @param task - Task to enqueue.
+     * @return the task with the highest priority in this queue, which may be the given task.
+     */
+    @Override
+    public Task enqueueThenDequeue(Object task) {
+        if (task == null){
+            throw new NullPointerException();
+        }
+        return pushPop((Task)task);
+    }
+
+    /**
+     * Returns true if this queue is empty.
+     *
+     * @return true if this queue is empty.
+     */
+    @Override
+    public boolean isEmpty() {
+        return getSize() == 0;
+    }
+
+    /**
+     * Sets the priority of the task at the specified index and refreshes its key.
+     *
+     * @param i An index in this queue, where the first index is 1.
+     * @param priority The new priority of the task.
+     */
+    public void reprioritize(int i, int priority) {
+        get(i).setPriority(priority);
+        refreshKey(i);
+    }
+
+    /**
+     * Increases the waiting times of all currently queued tasks. Each task that has passed timeToIncrementPriority
+     * will have its priority increased, up to the provided maximum, and its key refreshed.
+     *
+     * @param timeToIncrementPriority How long each task waits for before its priority is incremented.
+     * @param maxPriority The maximum priority any task can have.
+     */
+    @Override
+    public void update(int timeToIncrementPriority, int maxPriority) {
+        for (int i = 0; i < heapsize; i++) {
+            Task task = (Task) a[i];
+            task.incrementWaitingTime();
+            if (task.updatePriority(timeToIncrementPriority, maxPriority))
+                refreshKey(i+1);
+        }
+    }
+}
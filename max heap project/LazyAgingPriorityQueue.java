@@ -0,0 +1,256 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Priority queue that ages tasks lazily. Instead of visiting every queued task on each update, it counts updates on a
+ * virtual clock and works out a task's priority from the tick it was enqueued at, so update() is O(1).
+ *
+ * A task enqueued at tick e with priority p and waiting time w has, k ticks later, the same priority and waiting
+ * time as if Task.updatePriority() had been called k times. Writing origin = e - min(w, T-1) - p*T, its priority is
+ * min(maxPriority, floor((clock - origin) / T)) and, once k > 0, its waiting time is (clock - origin) mod T, which
+ * holds for negative priorities too. Tasks whose origins are congruent modulo T keep a fixed relative order
+ * as the clock advances, so each residue class is its own heap ordered by origin, then hourCreated. Once a task
+ * reaches maxPriority it moves to a single heap ordered by Task.compareTo(). dequeue() compares the tops of the
+ * non-empty classes, so it costs O(T + log n).
+ *
+ * @author Spencer Pattillo
+ */
+public class LazyAgingPriorityQueue implements PriorityQueueInterface {
+
+    private final int timeToIncrementPriority;
+    private final int maxPriority;
+
+    private final MaxHeap<Entry>[] classes;
+    private final int[] activeClasses;
+    private final int[] activeIndex;
+    private int activeCount;
+    private final MaxHeap<Entry> saturated;
+
+    private int clock;
+    private int size;
+    private Entry spareEntries;
+
+    /**
+     * Creates a new priority queue for the given aging parameters.
+     *
+     * @param timeToIncrementPriority How long each task waits for before its priority is incremented.
+     * @param maxPriority The maximum priority any task can have.
+     */
+    public LazyAgingPriorityQueue(int timeToIncrementPriority, int maxPriority) {
+        if (timeToIncrementPriority < 1)
+            throw new IllegalArgumentException("Illegal argument: time-to-increment-level must >= 1.");
+        this.timeToIncrementPriority = timeToIncrementPriority;
+        this.maxPriority = maxPriority;
+        classes = new MaxHeap[timeToIncrementPriority];
+        activeClasses = new int[timeToIncrementPriority];
+        activeIndex = new int[timeToIncrementPriority];
+        saturated = new MaxHeap<>(32);
+    }
+
+    /**
+     * Inserts the given task into this priority queue.
+     *
+     * @param task - Task to enqueue.
+     */
+    @Override
+    public void enqueue(Object task) {
+        if (task == null){
+            throw new NullPointerException();
+        }
+        Task t = (Task)task;
+        int waited = Math.min(t.getWaitingTime(), timeToIncrementPriority - 1);
+        Entry entry = newEntry(t, clock - waited - t.getPriority() * timeToIncrementPriority);
+
+        if (t.getPriority() >= maxPriority) {
+            entry.saturated = true;
+            saturated.insert(entry);
+        } else {
+            int r = Math.floorMod(entry.origin, timeToIncrementPriority);
+            if (classes[r] == null) classes[r] = new MaxHeap<>(8);
+            if (classes[r].getSize() == 0) {
+                activeIndex[r] = activeCount;
+                activeClasses[activeCount++] = r;
+            }
+            classes[r].insert(entry);
+        }
+        size++;
+    }
+
+    /**
+     * Removes and returns the task with the highest priority in this queue, with its priority and waiting time
+     * brought up to date.
+     *
+     * @return the task with the highest priority in this queue.
+     */
+    @Override
+    public Task dequeue() {
+        if (size == 0){
+            throw new NoSuchElementException();
+        }
+        for (int k = activeCount - 1; k >= 0; k--) saturate(activeClasses[k]);
+
+        MaxHeap<Entry> best = saturated.getSize() > 0 ? saturated : null;
+        int bestPriority = best == null ? Integer.MIN_VALUE : best.get(1).task.getPriority();
+        for (int k = 0; k < activeCount; k++) {
+            MaxHeap<Entry> heap = classes[activeClasses[k]];
+            Entry top = heap.get(1);
+            int priority = Math.floorDiv(clock - top.origin, timeToIncrementPriority);
+            if (best == null || priority > bestPriority || (priority == bestPriority
+                    && top.task.getHourCreated() < best.get(1).task.getHourCreated())) {
+                best = heap;
+                bestPriority = priority;
+            }
+        }
+
+        Entry entry = (Entry)best.extractMax();
+        if (best != saturated && best.getSize() == 0) deactivate(Math.floorMod(entry.origin, timeToIncrementPriority));
+        size--;
+
+        Task task = entry.task;
+        task.setPriority(bestPriority);
+        if (clock != entry.enqueuedAt) task.setWaitingTime(Math.floorMod(clock - entry.origin, timeToIncrementPriority));
+        releaseEntry(entry);
+        return task;
+    }
+
+    /**
+     * Returns true if this queue is empty.
+     *
+     * @return true if this queue is empty.
+     */
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Advances the virtual clock by one tick. Queued tasks are aged when they are dequeued.
+     *
+     * @param timeToIncrementPriority Must match the value this queue was created with.
+     * @param maxPriority Must match the value this queue was created with.
+     */
+    @Override
+    public void update(int timeToIncrementPriority, int maxPriority) {
+        if (timeToIncrementPriority != this.timeToIncrementPriority || maxPriority != this.maxPriority)
+            throw new IllegalArgumentException("Illegal argument: aging parameters differ from the queue's.");
+        clock++;
+        if (SchedulerMetrics.ENABLED) countBumps();
+    }
+
+    /**
+     * Counts the priority bumps the hourly queues would make at the current tick: every task of the residue class
+     * of the clock that was below maxPriority a tick ago moves up one level.
+     */
+    private void countBumps() {
+        MaxHeap<Entry> heap = classes[Math.floorMod(clock, timeToIncrementPriority)];
+        if (heap == null) return;
+        long limit = (long)maxPriority * timeToIncrementPriority;
+        int bumps = 0, reachedMax = 0;
+        for (int i = 1; i <= heap.getSize(); i++) {
+            long age = clock - heap.get(i).origin;
+            if (age <= limit) bumps++;
+            if (age == limit) reachedMax++;
+        }
+        SchedulerMetrics.countBumps(bumps, reachedMax);
+    }
+
+    /**
+     * Returns the number of tasks in this queue.
+     *
+     * @return the number of tasks in this queue.
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Moves every task of the given residue class that has reached maxPriority into the saturated heap.
+     *
+     * @param r A residue class modulo timeToIncrementPriority.
+     */
+    private void saturate(int r) {
+        MaxHeap<Entry> heap = classes[r];
+        long limit = (long)maxPriority * timeToIncrementPriority;
+        while (heap.getSize() > 0 && clock - heap.get(1).origin >= limit) {
+            Entry entry = (Entry)heap.extractMax();
+            entry.task.setPriority(maxPriority);
+            entry.saturated = true;
+            saturated.insert(entry);
+        }
+        if (heap.getSize() == 0) deactivate(r);
+    }
+
+    /**
+     * Removes the given residue class from the list of non-empty classes.
+     *
+     * @param r A residue class modulo timeToIncrementPriority.
+     */
+    private void deactivate(int r) {
+        int k = activeIndex[r];
+        int last = activeClasses[--activeCount];
+        activeClasses[k] = last;
+        activeIndex[last] = k;
+    }
+
+    /**
+     * Returns an entry for the given task, reusing a released one if possible.
+     */
+    private Entry newEntry(Task task, int origin) {
+        Entry entry = spareEntries;
+        if (entry == null) {
+            entry = new Entry();
+        } else {
+            spareEntries = entry.next;
+            entry.next = null;
+        }
+        entry.task = task;
+        entry.origin = origin;
+        entry.enqueuedAt = clock;
+        entry.saturated = false;
+        return entry;
+    }
+
+    /**
+     * Returns an entry to the spare list.
+     */
+    private void releaseEntry(Entry entry) {
+        entry.task = null;
+        entry.next = spareEntries;
+        spareEntries = entry;
+    }
+
+    /**
+     * Returns a string representation of this queue.
+     *
+     * @return a string representation of this queue.
+     */
+    public String toString() {
+        List<Task> tasks = new ArrayList<>(size);
+        for (int i = 1; i <= saturated.getSize(); i++) tasks.add(saturated.get(i).task);
+        for (int k = 0; k < activeCount; k++) {
+            MaxHeap<Entry> heap = classes[activeClasses[k]];
+            for (int i = 1; i <= heap.getSize(); i++) tasks.add(heap.get(i).task);
+        }
+        return "clock " + clock + ": " + tasks;
+    }
+
+    /**
+     * A queued task with the tick its aging is measured from. Within a residue class an earlier origin means a
+     * higher priority; saturated entries all share maxPriority and fall back to Task.compareTo().
+     */
+    private static final class Entry implements Comparable<Entry> {
+        private Task task;
+        private int origin;
+        private int enqueuedAt;
+        private boolean saturated;
+        private Entry next;
+
+        @Override
+        public int compareTo(Entry other) {
+            if (saturated) return task.compareTo(other.task);
+            if (origin != other.origin) return Integer.compare(other.origin, origin);
+            return Integer.compare(other.task.getHourCreated(), task.getHourCreated());
+        }
+    }
+}
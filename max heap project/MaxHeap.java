@@ -1,34 +1,68 @@
 
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
 import java.util.NoSuchElementException;
+import java.util.function.Consumer;
 
 /**
  * MaxHeap class. All methods assume indices start at 1.
  *
+ * The heap is binary by default but can be built as a d-ary heap, where each node has arity children stored next to
+ * each other in the backing array. A wider heap is shallower, so sifting down touches fewer cache lines at the cost of
+ * comparing more children per level.
+ *
  * @param <T> The type of element in this MaxHeap.
  */
 public class MaxHeap<T extends Comparable<T>>{
 
+    /**
+     * Arity for d-ary heaps when the caller has no better choice, and of MyLifeInStarDew --arity without a value.
+     * Four references fit in a quarter of a cache line.
+     */
+    public static final int DEFAULT_ARITY = 4;
 
     protected int heapsize;
     protected Comparable[] a;
+    protected final int arity;
+    private final int minCapacity;
 
     /**
-     * Makes a new MaxHeap with the given capacity.
+     * Makes a new binary MaxHeap with the given capacity. It stays binary rather than DEFAULT_ARITY so that it
+     * builds the same layout as MaxHeap(T...), and so that the order of elements in toString() and get(i) stays what
+     * existing callers and the --debug dump of the simulation show. Use MaxHeap(int, int) for a d-ary heap.
      *
      * @param intialCapacity The initial capacity.
      */
     public MaxHeap(int intialCapacity){
-        a = new Comparable[intialCapacity];
+        this(intialCapacity, 2);
+    }
 
+    /**
+     * Makes a new d-ary MaxHeap with the given capacity and number of children per node.
+     *
+     * @param intialCapacity The initial capacity.
+     * @param arity The number of children per node, at least 2.
+     */
+    public MaxHeap(int intialCapacity, int arity){
+        if (arity < 2) throw new IllegalArgumentException("Illegal argument: arity must >= 2.");
+        a = new Comparable[intialCapacity];
+        this.arity = arity;
+        minCapacity = Math.max(intialCapacity, 1);
     }
     /**
-     * Makes a new MaxHeap from the given array.
+     * Makes a new MaxHeap from the given array in linear time.
      * @param array An array of comparables.
      */
     public MaxHeap(T... array){
-        a = new Comparable[array.length];
-        for (T c : array) insert(c);
+        for (T c : array){
+            if (c == null) throw new NullPointerException();
+        }
+        a = Arrays.copyOf(array, Math.max(array.length, 1), Comparable[].class);
+        arity = 2;
+        minCapacity = a.length;
+        heapsize = array.length;
+        buildMaxHeap();
     }
 
     /**
@@ -57,27 +91,36 @@ public class MaxHeap<T extends Comparable<T>>{
      * @return The parent index.
      */
     public int parentIndex(int i){
-        return (i)/2;
+        return (i + arity - 2)/arity;
     }
 
     /**
-     * Returns the left child of the specified index.
+     * Returns the left (first) child of the specified index.
      *
      * @param i An index in this heap, where the first index is 1.
      * @return The left child index.
      */
     public int leftChildIndex(int i){
-        return 2*i;
+        return arity*(i-1) + 2;
     }
 
     /**
-     * Returns the right child of the specified index.
+     * Returns the right (last) child of the specified index.
      *
      * @param i An index in this heap, where the first index is 1.
      * @return The right child index.
      */
     public int rightChildIndex(int i){
-        return 2*i +1;
+        return arity*i + 1;
+    }
+
+    /**
+     * Returns the number of children per node in this heap.
+     *
+     * @return the number of children per node in this heap.
+     */
+    public int getArity(){
+        return arity;
     }
 
     /**
@@ -109,41 +152,52 @@ public class MaxHeap<T extends Comparable<T>>{
      * @param i An index in this heap, where the first index is 1.
      */
     public void heapify(int i){
-        int largest = i;
-        int l = leftChildIndex(i);
-        int r = rightChildIndex(i);
-
-
-        if (l <= heapsize &&a[l-1].compareTo(a[i-1]) >  0){
-            largest = l;
-
+        Comparable value = a[i-1];
+        int lastParent = parentIndex(heapsize);
+        int compares = 0, moves = 0;
+
+        while (i <= lastParent){
+            int left = leftChildIndex(i);
+            int largest = left;
+            int r = Math.min(rightChildIndex(i), heapsize);
+
+            for (int c = left + 1; c <= r; c++){
+                if (a[c-1].compareTo(a[largest-1]) > 0){
+                    largest = c;
+                }
+            }
+            compares += r - left + 1;
+            if (a[largest-1].compareTo(value) <= 0){
+                break;
+            }
+            a[i-1] = a[largest-1];
+            i = largest;
+            moves++;
         }
-
-        if (r <= heapsize && a[r-1].compareTo(a[largest-1]) > 0){
-            largest = r;
-        }
-        if (largest != i ){
-            swap(a, i,largest);
-            heapify(largest);
-        }
-
-
-
+        a[i-1] = value;
+        if (SchedulerMetrics.ENABLED) SchedulerMetrics.countSift(compares, moves);
     }
 
     /**
-     * Sorts this heap in-place.
+     * Sorts the elements of this heap in-place into ascending order. Only the first getSize() slots of the backing
+     * array take part, so a partially filled heap sorts correctly. Afterwards the heap is empty.
+     *
+     * @return the sorted elements.
      */
-    public void heapSort(){
+    public Comparable[] heapSort(){
+        int n = heapsize;
         buildMaxHeap();
 
-        for (int i = a.length; i >= 2 ; i--){
+        for (int i = heapsize; i >= 2 ; i--){
             swap(a, 1, i);
             heapsize--;
             heapify(1);
 
         }
-
+        heapsize = 0;
+        Comparable[] sorted = Arrays.copyOf(a, n);
+        Arrays.fill(a, 0, n, null);
+        return sorted;
     }
 
     /**
@@ -152,33 +206,33 @@ public class MaxHeap<T extends Comparable<T>>{
      * @param i An index in this heap, where the first index is 1.
      */
     public void heapifyUp(int i)  {
-
-        if (i == 1){
-            return;
-        }
-        Comparable j = a[parentIndex(i)-1];
-
-        if (a[i-1].compareTo(j) > 0){
-            swap(a,i,parentIndex(i));
-            heapifyUp(parentIndex(i));
-
+        Comparable value = a[i-1];
+        int compares = 0, moves = 0;
+
+        while (i > 1){
+            int parent = parentIndex(i);
+            compares++;
+            if (value.compareTo(a[parent-1]) <= 0){
+                break;
+            }
+            a[i-1] = a[parent-1];
+            i = parent;
+            moves++;
         }
-
+        a[i-1] = value;
+        if (SchedulerMetrics.ENABLED) SchedulerMetrics.countSift(compares, moves);
     }
 
     /**
-     * Rearranges every element in this heap's backing array so that they satisfy the heap condition.
+     * Rearranges the first heapsize elements of this heap's backing array so that they satisfy the heap condition,
+     * sifting down every parent from the bottom up. Runs in linear time.
      */
-    private void buildMaxHeap(){
-
-
-        heapsize = a.length-1;
-        int i = (a.length)/(2);
-        while (i >= 0){
+    protected void buildMaxHeap(){
+        int i = parentIndex(heapsize);
+        while (i >= 1){
             heapify(i);
             i--;
         }
-
     }
 
     /**
@@ -198,10 +252,41 @@ public class MaxHeap<T extends Comparable<T>>{
         a[heapsize] = data;
         heapsize++;
         heapifyUp(heapsize);
+        if (SchedulerMetrics.ENABLED) SchedulerMetrics.countOperation();
 
 
     }
 
+    /**
+     * Inserts every element of the given collection into this heap.
+     *
+     * @param data The elements to insert.
+     */
+    public void insertAll(Collection<? extends T> data) {
+        insertAll((T[]) data.toArray(new Comparable[0]));
+    }
+
+    /**
+     * Inserts every element of the given array into this heap. When at least as many elements are added as are
+     * already in the heap, they are appended and the whole heap is rebuilt in linear time rather than sifted up
+     * one at a time.
+     *
+     * @param data The elements to insert.
+     */
+    public void insertAll(T... data) {
+        if (data.length < heapsize){
+            for (T c : data) insert(c);
+            return;
+        }
+        for (T c : data){
+            if (c == null) throw new NullPointerException();
+        }
+        ensureCapacity(heapsize + data.length);
+        System.arraycopy(data, 0, a, heapsize, data.length);
+        heapsize += data.length;
+        buildMaxHeap();
+    }
+
     /**
      * Removes and returns the greatest (first) element of this heap.
      *
@@ -217,21 +302,201 @@ public class MaxHeap<T extends Comparable<T>>{
         a[heapsize-1] = null;
         heapsize--;
         heapify(1);
+        shrinkCapacity();
+        if (SchedulerMetrics.ENABLED) SchedulerMetrics.countOperation();
         return b;
 
 
     }
 
+    /**
+     * Returns the greatest (first) element of this heap without removing it.
+     *
+     * @return the greatest (first) element of this heap.
+     */
+    public T peek() {
+        if (heapsize == 0){
+            throw new NoSuchElementException();
+        }
+        return (T)a[0];
+    }
+
+    /**
+     * Returns an iterator over the elements of this heap from greatest to least, without modifying the heap. Each
+     * step pops the best index from a small frontier heap and pushes that index's children, so reading the first k
+     * elements costs O(k log k) no matter how big this heap is. The heap must not be modified during iteration.
+     *
+     * @return an iterator in descending order.
+     */
+    public Iterator<T> descendingIterator() {
+        return new Iterator<T>() {
+            private int[] frontier = new int[8];
+            private int frontierSize = heapsize > 0 ? 1 : 0;
+
+            {
+                frontier[0] = 1;
+            }
+
+            @Override
+            public boolean hasNext() {
+                return frontierSize > 0;
+            }
+
+            @Override
+            public T next() {
+                if (frontierSize == 0){
+                    throw new NoSuchElementException();
+                }
+                int i = frontier[0];
+                frontier[0] = frontier[--frontierSize];
+                siftDown();
+                int last = Math.min(rightChildIndex(i), heapsize);
+                for (int c = leftChildIndex(i); c <= last; c++) push(c);
+                return (T)a[i-1];
+            }
+
+            private void push(int index) {
+                if (frontierSize == frontier.length) frontier = Arrays.copyOf(frontier, frontierSize * 2);
+                int k = frontierSize++;
+                while (k > 0 && a[index-1].compareTo(a[frontier[(k-1)/2]-1]) > 0) {
+                    frontier[k] = frontier[(k-1)/2];
+                    k = (k-1)/2;
+                }
+                frontier[k] = index;
+            }
+
+            private void siftDown() {
+                if (frontierSize == 0) return;
+                int index = frontier[0];
+                int k = 0;
+                while (2*k + 1 < frontierSize) {
+                    int c = 2*k + 1;
+                    if (c + 1 < frontierSize && a[frontier[c+1]-1].compareTo(a[frontier[c]-1]) > 0) c++;
+                    if (a[frontier[c]-1].compareTo(a[index-1]) <= 0) break;
+                    frontier[k] = frontier[c];
+                    k = c;
+                }
+                frontier[k] = index;
+            }
+        };
+    }
+
+    /**
+     * Removes up to n of the greatest elements of this heap, passing each to the consumer in descending order.
+     *
+     * @param n The maximum number of elements to remove.
+     * @param consumer Receives each removed element.
+     * @return the number of elements removed.
+     */
+    public int extractMax(int n, Consumer<? super T> consumer) {
+        int count = Math.max(0, Math.min(n, heapsize));
+        for (int k = 0; k < count; k++){
+            if (SchedulerMetrics.ENABLED) SchedulerMetrics.countOperation();
+            T b = (T)a[0];
+            heapsize--;
+            a[0] = a[heapsize];
+            a[heapsize] = null;
+            if (heapsize > 0) heapify(1);
+            consumer.accept(b);
+        }
+        shrinkCapacity();
+        return count;
+    }
+
+    /**
+     * Inserts the given element and then removes and returns the greatest element of this heap. Cheaper than
+     * insert() followed by extractMax() since at most one sift down is needed.
+     *
+     * @param data The element to insert.
+     * @return the greatest element of this heap, which may be data itself.
+     */
+    public Comparable pushPop(Comparable data) {
+        if (data == null){
+            throw new NullPointerException();
+        }
+        if (SchedulerMetrics.ENABLED) {
+            SchedulerMetrics.countOperation();
+            if (heapsize > 0) SchedulerMetrics.countSift(1, 0);
+        }
+        if (heapsize == 0 || a[0].compareTo(data) <= 0){
+            return data;
+        }
+        Comparable b = a[0];
+        a[0] = data;
+        heapify(1);
+        return b;
+    }
+
+    /**
+     * Removes and returns the greatest element of this heap, replacing it with the given element.
+     *
+     * @param data The element to insert.
+     * @return the greatest element of this heap before the replacement.
+     */
+    public Comparable replaceTop(Comparable data) {
+        if (data == null){
+            throw new NullPointerException();
+        }
+        if (heapsize == 0){
+            throw new NoSuchElementException();
+        }
+        Comparable b = a[0];
+        a[0] = data;
+        heapify(1);
+        if (SchedulerMetrics.ENABLED) SchedulerMetrics.countOperation();
+        return b;
+    }
+
     /**
      * Doubles the capacity of this heap.
      */
     private void expandCapacity() {
-        Comparable[] b = new Comparable[a.length*2];
+        Comparable[] b = new Comparable[Math.max(a.length*2, 1)];
         System.arraycopy(a,0,b,0,heapsize);
 
         a = b;
     }
 
+    /**
+     * Halves the capacity of this heap once it is no more than a quarter full, but never below its initial
+     * capacity. Growing at full and shrinking at a quarter keeps a heap that hovers around one size from copying
+     * its array back and forth.
+     */
+    private void shrinkCapacity() {
+        if (a.length > minCapacity && heapsize <= a.length/4){
+            a = Arrays.copyOf(a, Math.max(a.length/2, minCapacity));
+        }
+    }
+
+    /**
+     * Shrinks the capacity of this heap to its current size.
+     */
+    public void trimToSize() {
+        if (a.length > heapsize){
+            a = Arrays.copyOf(a, Math.max(heapsize, 1));
+        }
+    }
+
+    /**
+     * Returns the length of this heap's backing array.
+     *
+     * @return the capacity of this heap.
+     */
+    public int getCapacity() {
+        return a.length;
+    }
+
+    /**
+     * Doubles the capacity of this heap until it can hold the given number of elements.
+     *
+     * @param capacity The number of elements this heap must be able to hold.
+     */
+    private void ensureCapacity(int capacity) {
+        while (a.length < capacity){
+            expandCapacity();
+        }
+    }
+
     /**
      * Returns a string representation of this heap.
      *
@@ -1,5 +1,24 @@
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
 import java.util.Objects;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
 import java.util.function.BooleanSupplier;
 
 public class MaxHeapTest{
@@ -78,6 +97,865 @@ public class MaxHeapTest{
         return passed;
     }
 
+    private static boolean testInsertAll(Integer[] array, Integer... extractExpected)
+    {
+        System.out.println("Inserting all of " + Arrays.toString(array));
+        MaxHeap heap = new MaxHeap(1);
+        heap.insert(2);
+        heap.insertAll(array);
+        heap.insertAll(Arrays.asList(4, 0));
+        if (!verifyHeap(heap)) return false;
+
+        StringBuilder extracted = new StringBuilder();
+        int count = heap.extractMax(extractExpected.length, num -> extracted.append(num).append(' '));
+        StringBuilder expected = new StringBuilder();
+        for (Integer expect : extractExpected) expected.append(expect).append(' ');
+        System.out.println("Extracted " + extracted + ", expected " + expected);
+
+        return count == extractExpected.length && expected.toString().equals(extracted.toString()) && verifyHeap(heap);
+    }
+
+    private static boolean testArity(int arity, Integer[] array, Integer... extractExpected)
+    {
+        System.out.println("Testing " + arity + "-ary heap with " + Arrays.toString(array));
+        MaxHeap heap = new MaxHeap(1, arity);
+        for (Integer num : array) heap.insert(num);
+        if (!verifyHeap(heap)) return false;
+
+        boolean passed = true;
+        for (Integer expect : extractExpected)
+        {
+            Integer extracted = (Integer)heap.extractMax();
+            System.out.println("Extracted " + extracted + ", expected " + expect);
+
+            if (!Objects.equals(expect, extracted)) passed = false;
+        }
+        return passed && isValidHeap(heap);
+    }
+
+    private static boolean testIndexedHeap()
+    {
+        System.out.println("Testing handles on indexed heap");
+        IndexedMaxHeap<Integer> heap = new IndexedMaxHeap<>(1);
+        long[] handles = new long[6];
+        Integer[] nums = {7, 5, -30, 3, 1, 100};
+        for (int i = 0; i < nums.length; i++) handles[i] = heap.insert(nums[i]);
+
+        boolean passed = heap.contains(handles[2]) && heap.remove(handles[2]) == -30 && !heap.contains(handles[2]);
+        passed &= heap.remove(handles[5]) == 100;
+        long reused = heap.insert(-30); //takes the slot of 100 under a new generation
+        passed &= !heap.contains(handles[5]) && heap.getByHandle(reused) == -30;
+        try
+        {
+            heap.remove(handles[5]);
+            passed = false;
+        }
+        catch (NoSuchElementException e)
+        {
+            passed &= heap.getSize() == 5;
+        }
+        passed &= heap.pushPop(6) == 7 && heap.getByHandle(heap.getLastHandle()) == 6;
+        passed &= heap.pushPop(50) == 50 && heap.getLastHandle() == -1;
+        passed &= heap.getByHandle(handles[3]) == 3;
+        passed &= heap.extractMax() == 6 && heap.extractMax() == 5 && heap.extractMax() == 3;
+        System.out.println("Result: " + heap);
+        return passed && heap.getSize() == 2;
+    }
+
+    private static boolean testIndexedQueue()
+    {
+        System.out.println("Testing increaseKey, decreaseKey, remove and reprioritize on indexed queue");
+        IndexedPriorityQueue queue = new IndexedPriorityQueue(1);
+        Task[] tasks = new Task[6];
+        long[] handles = new long[tasks.length];
+        for (int i = 0; i < tasks.length; i++)
+        {
+            tasks[i] = new Task(i, TaskInterface.TaskType.FARM_MAINTENANCE, "");
+            tasks[i].setPriority(i);
+            handles[i] = queue.insert(tasks[i]);
+        }
+
+        tasks[0].setPriority(9);
+        queue.increaseKey(handles[0]);
+        tasks[5].setPriority(-1);
+        queue.decreaseKey(handles[5]);
+        queue.reprioritize(handles[1], 8);
+        queue.reprioritize(handles[4], -2);
+        boolean passed = queue.remove(handles[3]) == tasks[3] && !queue.contains(handles[3]);
+
+        Task[] expected = {tasks[0], tasks[1], tasks[2], tasks[5], tasks[4]};
+        for (Task want : expected)
+        {
+            Task got = queue.dequeue();
+            System.out.println("Dequeued " + got.getHourCreated() + " at priority " + got.getPriority()
+                    + ", expected " + want.getHourCreated());
+            if (got != want) passed = false;
+        }
+        return passed && queue.isEmpty();
+    }
+
+    private static boolean testBoundedHeap(int maxSize, Integer[] array, Integer... extractExpected)
+    {
+        System.out.println("Keeping top " + maxSize + " of " + Arrays.toString(array));
+        BoundedMaxHeap<Integer> heap = new BoundedMaxHeap<>(maxSize, BoundedMaxHeap.OverflowPolicy.EVICT_LOWEST);
+        for (Integer num : array) heap.insert(num);
+        System.out.println("Result: " + heap);
+
+        boolean passed = heap.getSize() == maxSize && heap.peekMin() == extractExpected[extractExpected.length-1];
+        for (Integer expect : extractExpected)
+        {
+            Integer extracted = heap.extractMax();
+            System.out.println("Extracted " + extracted + ", expected " + expect);
+
+            if (!Objects.equals(expect, extracted)) passed = false;
+        }
+        return passed;
+    }
+
+    private static boolean testShrink(int count)
+    {
+        System.out.println("Inserting and draining " + count + " numbers");
+        MaxHeap heap = new MaxHeap(4);
+        for (int i = 0; i < count; i++) heap.insert(i);
+        int grown = heap.getCapacity();
+        while (heap.getSize() > 1) heap.extractMax();
+        System.out.println("Capacity grew to " + grown + " and shrank to " + heap.getCapacity());
+        heap.trimToSize();
+        return grown >= count && heap.getCapacity() == 1 && isValidHeap(heap);
+    }
+
+    private static boolean testDescendingIterator(int arity, Integer[] array, Integer... expected)
+    {
+        System.out.println("Iterating " + arity + "-ary heap of " + Arrays.toString(array));
+        MaxHeap heap = new MaxHeap(1, arity);
+        for (Integer num : array) heap.insert(num);
+        String before = heap.toString();
+
+        Integer[] seen = new Integer[array.length];
+        int count = 0;
+        for (Iterator<Integer> it = heap.descendingIterator(); it.hasNext(); ) seen[count++] = it.next();
+        System.out.println("Result: " + Arrays.toString(seen));
+
+        return Arrays.equals(expected, seen) && before.equals(heap.toString()) && heap.peek().equals(expected[0]);
+    }
+
+    private static boolean testTopK(int k, Integer[] array, Integer... expected)
+    {
+        System.out.println("Top " + k + " of " + Arrays.toString(array));
+        List<Integer> top = TopK.of(Arrays.asList(array), k);
+        List<Integer> streamed = Arrays.stream(array).parallel().collect(TopK.collector(k));
+        System.out.println("Result: " + top + " streamed: " + streamed);
+        return top.equals(Arrays.asList(expected)) && streamed.equals(top);
+    }
+
+    private static boolean testHeapSort(Integer... array)
+    {
+        System.out.println("Heap sorting, with spare capacity: " + Arrays.toString(array));
+        MaxHeap heap = new MaxHeap(array.length * 2 + 1);
+        for (Integer num : array) heap.insert(num);
+        Comparable[] sorted = heap.heapSort();
+        System.out.println("Result: " + Arrays.toString(sorted));
+
+        Integer[] expected = array.clone();
+        Arrays.sort(expected);
+        return Arrays.equals(expected, sorted) && heap.getSize() == 0;
+    }
+
+    private static boolean testParallelHeapSort(int n, long seed)
+    {
+        System.out.println("Parallel heap sorting " + n + " random values");
+        Random random = new Random(seed);
+        int[] ints = random.ints(n, -1000, 1000).toArray();
+        long[] longs = random.longs(n).toArray();
+        Integer[] boxed = Arrays.stream(ints).boxed().toArray(Integer[]::new);
+
+        int[] expectedInts = ints.clone();
+        long[] expectedLongs = longs.clone();
+        Arrays.sort(expectedInts);
+        Arrays.sort(expectedLongs);
+        HeapSort.parallelSort(ints);
+        HeapSort.parallelSort(longs);
+        HeapSort.parallelSort(boxed);
+        return Arrays.equals(expectedInts, ints) && Arrays.equals(expectedLongs, longs)
+                && Arrays.equals(Arrays.stream(expectedInts).boxed().toArray(), boxed);
+    }
+
+    private static boolean testPairingHeap(Integer[] first, Integer[] second)
+    {
+        System.out.println("Melding " + Arrays.toString(first) + " with " + Arrays.toString(second));
+        PairingHeap<Integer> heap = new PairingHeap<>();
+        PairingHeap<Integer> other = new PairingHeap<>();
+        PairingHeap.Node<Integer> lowest = null;
+        for (Integer num : first) heap.insert(num);
+        for (Integer num : second)
+        {
+            PairingHeap.Node<Integer> node = other.insert(num);
+            if (lowest == null || num < lowest.getValue()) lowest = node;
+        }
+        heap.meld(other);
+        Integer raised = lowest.getValue();
+        heap.increaseKey(lowest, 1000);
+        System.out.println("Result: " + heap);
+
+        Integer[] expected = Arrays.copyOf(first, first.length + second.length);
+        System.arraycopy(second, 0, expected, first.length, second.length);
+        expected[Arrays.asList(expected).lastIndexOf(raised)] = 1000;
+        Arrays.sort(expected);
+
+        boolean passed = other.getSize() == 0 && heap.getSize() == expected.length;
+        for (int i = expected.length - 1; i >= 0; i--)
+        {
+            Integer extracted = heap.extractMax();
+            if (!expected[i].equals(extracted)) passed = false;
+        }
+        return passed;
+    }
+
+    private static boolean testKeyedQueue(int count, long seed)
+    {
+        System.out.println("Comparing KeyedPriorityQueue with MyPriorityQueue on " + count + " random tasks");
+        Random random = new Random(seed);
+        MyPriorityQueue expected = new MyPriorityQueue();
+        KeyedPriorityQueue keyed = new KeyedPriorityQueue(1);
+        for (int hour = 0; hour < count; hour++)
+        {
+            int priority = random.nextInt(5) - 2;
+            Task first = new Task(hour, TaskInterface.TaskType.MINING, "");
+            Task second = new Task(hour, TaskInterface.TaskType.MINING, "");
+            first.setPriority(priority);
+            second.setPriority(priority);
+            expected.enqueue(first);
+            keyed.enqueue(second);
+            expected.update(2, 3);
+            keyed.update(2, 3);
+        }
+        Task raised = keyed.get(keyed.getSize());
+        keyed.reprioritize(keyed.getSize(), 10);
+        boolean passed = keyed.dequeue() == raised;
+
+        while (!expected.isEmpty())
+        {
+            Task want = expected.dequeue();
+            if (want.getHourCreated() == raised.getHourCreated()) continue;
+            Task got = keyed.dequeue();
+            if (want.getHourCreated() != got.getHourCreated() || want.getPriority() != got.getPriority())
+                passed = false;
+        }
+        return passed && keyed.isEmpty();
+    }
+
+    private static boolean testBucketQueue(int count, long seed)
+    {
+        System.out.println("Comparing BucketPriorityQueue with MyPriorityQueue on " + count + " random tasks");
+        Random random = new Random(seed);
+        MyPriorityQueue expected = new MyPriorityQueue();
+        BucketPriorityQueue bucket = new BucketPriorityQueue(3);
+        boolean passed = true;
+        for (int hour = 0; hour < count; hour++)
+        {
+            int priority = random.nextInt(5);
+            Task first = new Task(hour, TaskInterface.TaskType.MINING, "");
+            Task second = new Task(hour, TaskInterface.TaskType.MINING, "");
+            first.setPriority(priority);
+            second.setPriority(priority);
+            expected.enqueue(first);
+            bucket.enqueue(second);
+            expected.update(2, 3);
+            bucket.update(2, 3);
+            if (random.nextInt(3) == 0)
+            {
+                Task want = expected.dequeue();
+                Task got = bucket.dequeue();
+                if (want.getHourCreated() != got.getHourCreated() || want.getPriority() != got.getPriority())
+                    passed = false;
+            }
+        }
+        while (!expected.isEmpty())
+        {
+            Task want = expected.dequeue();
+            Task got = bucket.dequeue();
+            if (want.getHourCreated() != got.getHourCreated() || want.getPriority() != got.getPriority())
+                passed = false;
+        }
+
+        Task negative = new Task(count, TaskInterface.TaskType.MINING, "");
+        negative.setPriority(-1);
+        try
+        {
+            bucket.enqueue(negative);
+            passed = false;
+        }
+        catch (IllegalArgumentException e)
+        {
+            System.out.println("Rejected priority -1: " + e.getMessage());
+        }
+        return passed && bucket.isEmpty();
+    }
+
+    private static boolean testLazyQueue(int count, long seed)
+    {
+        System.out.println("Comparing LazyAgingPriorityQueue with MyPriorityQueue on " + count
+                + " random tasks, some with negative priorities");
+        Random random = new Random(seed);
+        MyPriorityQueue expected = new MyPriorityQueue();
+        LazyAgingPriorityQueue lazy = new LazyAgingPriorityQueue(3, 4);
+        Task wantResumed = null;
+        Task gotResumed = null;
+        boolean passed = true;
+        for (int hour = 0; hour < count; hour++)
+        {
+            int priority = random.nextInt(9) - 4;
+            int waitingTime = random.nextInt(4);
+            Task first = new Task(hour, TaskInterface.TaskType.MINING, "");
+            Task second = new Task(hour, TaskInterface.TaskType.MINING, "");
+            first.setPriority(priority);
+            second.setPriority(priority);
+            first.setWaitingTime(waitingTime);
+            second.setWaitingTime(waitingTime);
+            expected.enqueue(first);
+            lazy.enqueue(second);
+            if (wantResumed != null && random.nextBoolean())
+            {
+                expected.enqueue(wantResumed);
+                lazy.enqueue(gotResumed);
+                wantResumed = null;
+                gotResumed = null;
+            }
+            expected.update(3, 4);
+            lazy.update(3, 4);
+            if (wantResumed == null && random.nextInt(3) == 0)
+            {
+                wantResumed = expected.dequeue();
+                gotResumed = lazy.dequeue();
+                if (wantResumed.getHourCreated() != gotResumed.getHourCreated()
+                        || wantResumed.getPriority() != gotResumed.getPriority()
+                        || wantResumed.getWaitingTime() != gotResumed.getWaitingTime())
+                    passed = false;
+            }
+        }
+        while (!expected.isEmpty())
+        {
+            Task want = expected.dequeue();
+            Task got = lazy.dequeue();
+            if (want.getHourCreated() != got.getHourCreated() || want.getPriority() != got.getPriority()
+                    || want.getWaitingTime() != got.getWaitingTime())
+                passed = false;
+        }
+        return passed && lazy.isEmpty();
+    }
+
+    private static boolean testColumnarQueue(int count, long seed)
+    {
+        System.out.println("Comparing ColumnarPriorityQueue with MyPriorityQueue on " + count
+                + " random tasks, half of them added and removed by slot");
+        Random random = new Random(seed);
+        MyPriorityQueue expected = new MyPriorityQueue();
+        ColumnarPriorityQueue columnar = new ColumnarPriorityQueue(4);
+        TaskStore store = columnar.getStore();
+        boolean passed = true;
+        for (int hour = 0; hour < count; hour++)
+        {
+            int priority = random.nextInt(5);
+            Task first = new Task(hour, TaskInterface.TaskType.MINING, "");
+            first.setPriority(priority);
+            expected.enqueue(first);
+            if (random.nextBoolean())
+            {
+                Task second = new Task(hour, TaskInterface.TaskType.MINING, "");
+                second.setPriority(priority);
+                columnar.enqueue(second);
+            }
+            else
+            {
+                columnar.insertSlot(store.add(hour, TaskInterface.TaskType.MINING, "", priority, 0, hour));
+            }
+            expected.update(2, 3);
+            columnar.update(2, 3);
+
+            int choice = random.nextInt(3);
+            if (choice == 0)
+            {
+                Task want = expected.dequeue();
+                Task got = columnar.dequeue();
+                if (want.getHourCreated() != got.getHourCreated() || want.getPriority() != got.getPriority()
+                        || want.getWaitingTime() != got.getWaitingTime())
+                    passed = false;
+            }
+            else if (choice == 1)
+            {
+                Task want = expected.dequeue();
+                int slot = columnar.extractMaxSlot();
+                if (want.getHourCreated() != store.getHourCreated(slot) || want.getPriority() != store.getPriority(slot)
+                        || want.getWaitingTime() != store.getWaitingTime(slot))
+                    passed = false;
+                store.remove(slot);
+            }
+        }
+        while (!expected.isEmpty())
+        {
+            Task want = expected.dequeue();
+            Task got = columnar.dequeue();
+            if (want.getHourCreated() != got.getHourCreated() || want.getPriority() != got.getPriority()
+                    || want.getWaitingTime() != got.getWaitingTime())
+                passed = false;
+        }
+
+        Task queued = new Task(count, TaskInterface.TaskType.MINING, "");
+        queued.setPriority(2);
+        Task next = new Task(count + 1, TaskInterface.TaskType.MINING, "");
+        columnar.enqueue(queued);
+        columnar.update(2, 3);
+        columnar.update(2, 3);
+        Task top = columnar.enqueueThenDequeue(next);
+        System.out.println("Dequeued " + top);
+        passed &= top == queued && top.getPriority() == 3 && top.getWaitingTime() == 0;
+        passed &= columnar.enqueueThenDequeue(top) == top && columnar.dequeue() == next;
+        return passed && columnar.isEmpty();
+    }
+
+    private static boolean testMonteCarlo(int runs)
+    {
+        System.out.println("Running " + runs + " seeds on one and on three threads");
+        MonteCarloRunner runner = new MonteCarloRunner(4, 3, 10, 0.9, "heap");
+        SimulationResult[] serial = runner.run(7, runs, 1);
+        SimulationResult[] parallel = runner.run(7, runs, 3);
+
+        boolean passed = true;
+        for (int i = 0; i < runs; i++)
+        {
+            if (!serial[i].toString().equals(parallel[i].toString())) passed = false;
+        }
+        passed &= serial[runs - 1].toString().equals(runner.runOne(7 + runs - 1).toString());
+
+        SampleStatistics stats = new SampleStatistics(4, 1, 3, 2);
+        System.out.println("Statistics of 1..4: " + stats);
+        return passed && stats.getMean() == 2.5 && stats.getPercentile(50) == 2.5 && stats.getPercentile(100) == 4;
+    }
+
+    private static boolean testSweepResume()
+    {
+        System.out.println("Interrupting and resuming a parameter sweep");
+        try
+        {
+            Path csv = Files.createTempFile("sweep", ".csv");
+            Files.delete(csv);
+            ParameterSweep sweep = new ParameterSweep(new int[]{2, 4}, new int[]{1, 3}, new double[]{0.5, 0.9},
+                    5, 3, 1, "heap");
+            int first = sweep.run(csv, 2);
+            List<String> complete = Files.readAllLines(csv);
+
+            List<String> interrupted = new ArrayList<>(complete.subList(0, 5));
+            Files.write(csv, interrupted);
+            Files.write(csv, "4,3,0.9,5,3,1,123".getBytes(), StandardOpenOption.APPEND);
+            int resumed = sweep.run(csv, 2);
+            List<String> after = Files.readAllLines(csv);
+            Files.delete(csv);
+
+            System.out.println("Ran " + first + " combinations, then " + resumed + " after the interruption");
+            Collections.sort(complete);
+            Collections.sort(after);
+            return first == 8 && resumed == 4 && complete.equals(after);
+        }
+        catch (IOException e)
+        {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static boolean testTaskAllocation(int count)
+    {
+        System.out.println("Creating " + count + " tasks and counting the bytes allocated");
+        if (!(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean))
+        {
+            System.out.println("Allocation counting is not supported by this JVM");
+            return true;
+        }
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        if (!threads.isThreadAllocatedMemorySupported())
+        {
+            System.out.println("Allocation counting is not supported by this JVM");
+            return true;
+        }
+        threads.setThreadAllocatedMemoryEnabled(true);
+
+        TaskInterface.TaskType[] types = TaskInterface.TaskType.values();
+        TaskGenerator generator = new TaskGenerator(0.5, 1);
+        Task[] tasks = new Task[count];
+        long perTask = 0;
+        long perBareTask = 0;
+        for (int round = 0; round < 5; round++) //the first rounds warm up the JIT
+        {
+            long before = threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+            for (int i = 0; i < count; i++)
+            {
+                generator.generateTask();
+                TaskInterface.TaskType type = types[i % types.length];
+                tasks[i] = new Task(i, type, Task.getDetail(type, i % Task.getDetailCount(type)));
+            }
+            perBareTask = (threads.getThreadAllocatedBytes(Thread.currentThread().getId()) - before) / count;
+
+            before = threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+            for (int i = 0; i < count; i++)
+            {
+                generator.generateTask();
+                TaskInterface.TaskType type = types[i % types.length];
+                tasks[i] = generator.getNewTask(i, type, i % Task.getDetailCount(type));
+            }
+            perTask = (threads.getThreadAllocatedBytes(Thread.currentThread().getId()) - before) / count;
+        }
+        System.out.println("Bytes allocated per task: " + perTask + ", for a bare Task: " + perBareTask);
+
+        Task maintenance = tasks[2];
+        StringWriter line = new StringWriter();
+        PrintWriter out = new PrintWriter(line);
+        generator.println(out, maintenance);
+        TaskGenerator.printNewTask(out, maintenance);
+        out.flush();
+        String expected = "     Farm Maintenance of Watering Plants at 200 energy points (Priority:0)";
+        return perTask <= perBareTask
+                && maintenance.getTaskDescription() == Task.getDetail(TaskInterface.TaskType.FARM_MAINTENANCE, 2)
+                && generator.toString(maintenance, maintenance.getTaskType()).equals(expected)
+                && line.toString().equals(expected + System.lineSeparator() + "\t\t\t\t\t\t\tNEW TASK: "
+                        + maintenance + "\n")
+                && maintenance.toString().equals("FARM_MAINTENANCE of Watering Plants at Hour: 2:00");
+    }
+
+    private static boolean testTraceReplay()
+    {
+        System.out.println("Tracing a run and replaying its log from the trace");
+        try
+        {
+            Path file = Files.createTempFile("stardew", ".trace");
+            MyLifeInStarDew simulation = new MyLifeInStarDew(4, 3, 15, 0.7, 9, "heap");
+            simulation.setTrace(file);
+            StringWriter log = new StringWriter();
+            PrintWriter logWriter = new PrintWriter(log);
+            MyLifeInStarDew.logSummary(logWriter, 15, simulation.simulate(logWriter));
+            logWriter.flush();
+
+            EventTraceReader trace = new EventTraceReader(file);
+            StringWriter replayed = new StringWriter();
+            PrintWriter replayWriter = new PrintWriter(replayed);
+            TraceReplay.printText(trace, replayWriter);
+            int mismatch = TraceReplay.verify(trace, "lazy", replayWriter);
+            replayWriter.flush();
+            Files.delete(file);
+
+            System.out.println(trace.getRecordCount() + " records");
+            return replayed.toString().startsWith(log.toString()) && mismatch == -1
+                    && trace.getSeed() == 9 && trace.getQueueType().equals("heap");
+        }
+        catch (IOException e)
+        {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static boolean testCheckpointResume(String queueType)
+    {
+        System.out.println("Checkpointing a run on the " + queueType + " queue after day 8 and resuming it");
+        try
+        {
+            Path file = Files.createTempFile("stardew", ".checkpoint");
+            MyLifeInStarDew whole = new MyLifeInStarDew(3, 4, 15, 0.8, 21, queueType);
+            whole.setCheckpoint(file, 8);
+            StringWriter wholeLog = new StringWriter();
+            SimulationResult wholeResult = whole.simulate(new PrintWriter(wholeLog));
+
+            SimulationCheckpoint checkpoint = SimulationCheckpoint.read(file);
+            Files.delete(file);
+            MyLifeInStarDew resumed = new MyLifeInStarDew();
+            resumed.resume(checkpoint);
+            StringWriter resumedLog = new StringWriter();
+            SimulationResult resumedResult = resumed.simulate(new PrintWriter(resumedLog));
+
+            System.out.println(checkpoint.getQueuedTasks().length + " tasks queued after day "
+                    + checkpoint.getCompletedDays());
+            return checkpoint.getCompletedDays() == 8 && checkpoint.getQueuedTasks().length > 0
+                    && resumedResult.toString().equals(wholeResult.toString())
+                    && resumedLog.toString().contains("DAY: 9")
+                    && wholeLog.toString().endsWith(resumedLog.toString());
+        }
+        catch (IOException e)
+        {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static boolean testShardedQueue(int producers, int consumers, int perProducer)
+    {
+        System.out.println(producers + " producers and " + consumers + " consumers sharing a sharded queue, with "
+                + "update running while they produce");
+        ShardedPriorityQueue queue = new ShardedPriorityQueue(4);
+        AtomicIntegerArray dequeued = new AtomicIntegerArray(producers * perProducer);
+        AtomicBoolean producing = new AtomicBoolean(true);
+
+        Thread[] producerThreads = new Thread[producers];
+        for (int p = 0; p < producers; p++)
+        {
+            int first = p * perProducer;
+            producerThreads[p] = new Thread(() -> {
+                for (int id = first; id < first + perProducer; id++)
+                {
+                    Task task = new Task(id, TaskInterface.TaskType.FORAGING, "");
+                    task.setPriority(id % 3);
+                    queue.enqueue(task);
+                }
+            });
+        }
+        Thread updater = new Thread(() -> {
+            while (producing.get()) queue.update(2, 5);
+        });
+        Thread[] consumerThreads = new Thread[consumers];
+        for (int c = 0; c < consumers; c++)
+        {
+            consumerThreads[c] = new Thread(() -> {
+                while (producing.get() || !queue.isEmpty())
+                {
+                    Task task = queue.poll();
+                    if (task != null) dequeued.incrementAndGet(task.getHourCreated());
+                }
+            });
+        }
+
+        updater.start();
+        for (Thread thread : consumerThreads) thread.start();
+        for (Thread thread : producerThreads) thread.start();
+        try
+        {
+            for (Thread thread : producerThreads) thread.join();
+            producing.set(false);
+            updater.join();
+            for (Thread thread : consumerThreads) thread.join();
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+
+        boolean passed = queue.getSize() == 0 && queue.poll() == null;
+        int missing = 0;
+        int repeated = 0;
+        for (int id = 0; id < dequeued.length(); id++)
+        {
+            if (dequeued.get(id) == 0) missing++;
+            if (dequeued.get(id) > 1) repeated++;
+        }
+        System.out.println(missing + " tasks never dequeued, " + repeated + " dequeued more than once");
+        return passed && missing == 0 && repeated == 0;
+    }
+
+    private static boolean testBlockingQueue()
+    {
+        System.out.println("Testing poll timeout, offer on a full queue and close on a blocking queue");
+        BlockingPriorityQueue queue = new BlockingPriorityQueue(new MyPriorityQueue(), 2);
+        try
+        {
+            boolean passed = queue.poll(10, TimeUnit.MILLISECONDS) == null;
+            passed &= queue.offer(new Task(0, TaskInterface.TaskType.MINING, ""), 0, TimeUnit.MILLISECONDS);
+            passed &= queue.offer(new Task(1, TaskInterface.TaskType.MINING, ""), 0, TimeUnit.MILLISECONDS);
+            passed &= !queue.offer(new Task(2, TaskInterface.TaskType.MINING, ""), 10, TimeUnit.MILLISECONDS);
+            passed &= queue.getSize() == 2 && queue.dequeueBatch(2).length == 2;
+
+            Task[] taken = new Task[1];
+            boolean[] returned = new boolean[1];
+            Thread taker = new Thread(() -> {
+                try
+                {
+                    taken[0] = queue.take();
+                    returned[0] = true;
+                }
+                catch (InterruptedException e)
+                {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            taker.start();
+            while (taker.getState() != Thread.State.WAITING && taker.getState() != Thread.State.TIMED_WAITING)
+                Thread.yield();
+            queue.close();
+            taker.join(5000);
+            System.out.println("take() returned " + taken[0] + " after close()");
+            return passed && returned[0] && taken[0] == null && !taker.isAlive();
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private static boolean testTaskDispatcher(int count)
+    {
+        System.out.println("Dispatching " + count + " tasks, then shutting down gracefully and immediately");
+        AtomicInteger errors = new AtomicInteger();
+        TaskDispatcher dispatcher = new TaskDispatcher(new BlockingPriorityQueue(), 2, task -> {
+            if (task.getHourCreated() % 10 == 0) throw new IllegalStateException("task " + task.getHourCreated());
+        }, (task, e) -> errors.incrementAndGet(), TaskDispatcher.defaultThreadFactory());
+        for (int i = 0; i < count; i++) dispatcher.submit(new Task(i, TaskInterface.TaskType.FORAGING, ""));
+        dispatcher.start();
+        dispatcher.shutdown();
+
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        TaskDispatcher stopped = new TaskDispatcher(new BlockingPriorityQueue(), 1, task -> {
+            started.countDown();
+            try
+            {
+                release.await();
+            }
+            catch (InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+            }
+        });
+        for (int i = 0; i < 5; i++) stopped.submit(new Task(i, TaskInterface.TaskType.FORAGING, ""));
+        try
+        {
+            boolean passed = dispatcher.awaitTermination(5, TimeUnit.SECONDS);
+            passed &= dispatcher.getCompletedCount() + dispatcher.getFailedCount() == count;
+            passed &= dispatcher.getFailedCount() == (count + 9) / 10 && errors.get() == (count + 9) / 10;
+            passed &= dispatcher.getLastFailure() instanceof IllegalStateException;
+            System.out.println(dispatcher.getCompletedCount() + " completed, " + dispatcher.getFailedCount()
+                    + " failed, last failure: " + dispatcher.getLastFailure().getMessage());
+
+            stopped.start();
+            started.await();
+            List<Task> unstarted = stopped.shutdownNow();
+            System.out.println("shutdownNow() returned " + unstarted.size() + " unstarted tasks");
+            passed &= unstarted.size() == 4 && stopped.awaitTermination(5, TimeUnit.SECONDS);
+            return passed && stopped.getCompletedCount() == 1;
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private static boolean testFarmSimulation()
+    {
+        System.out.println("Running one farmer alone, and 200 farmers sharing spots on 1 and 4 threads");
+        SimulationResult single = new MyLifeInStarDew(4, 3, 20, 0.6, 17, "heap").simulate(null);
+        SimulationResult alone = new FarmSimulation(1, 4, 3, 20, 0.6, 17, "heap", 1).run(2)[0];
+
+        FarmSimulation serial = new FarmSimulation(200, 4, 3, 20, 0.6, 17, "lazy", 2);
+        FarmSimulation parallel = new FarmSimulation(200, 4, 3, 20, 0.6, 17, "lazy", 2);
+        SimulationResult[] serialResults = serial.run(1);
+        SimulationResult[] parallelResults = parallel.run(4);
+        System.out.println(serial.getDeniedHours() + " farmer-hours waited for a spot");
+
+        boolean passed = alone.toString().equals(single.toString());
+        passed &= serial.getDeniedHours() > 0 && serial.getDeniedHours() == parallel.getDeniedHours();
+        for (int i = 0; i < serialResults.length; i++)
+        {
+            passed &= serialResults[i].toString().equals(parallelResults[i].toString());
+        }
+        return passed;
+    }
+
+    private static boolean testSchedulerMetrics()
+    {
+        System.out.println("Recording metrics of the same run on every queue");
+        List<String> queues = new ArrayList<>(MyLifeInStarDew.QUEUE_TYPES);
+        MetricsSnapshot[] snapshots = new MetricsSnapshot[queues.size()];
+        for (int q = 0; q < queues.size(); q++)
+        {
+            MyLifeInStarDew simulation = new MyLifeInStarDew(3, 4, 20, 0.6, 5, queues.get(q));
+            SchedulerMetrics metrics = new SchedulerMetrics();
+            simulation.setMetrics(metrics);
+            simulation.simulate(null);
+            snapshots[q] = metrics.snapshot();
+        }
+        System.out.println(snapshots[0]);
+
+        boolean passed = snapshots[0].getHours() > 0 && snapshots[0].getMaxDepth() > 0;
+        for (int q = 1; q < queues.size(); q++)
+        {
+            passed &= snapshots[q].getHours() == snapshots[0].getHours();
+            passed &= snapshots[q].getDepth() == snapshots[0].getDepth();
+            passed &= snapshots[q].getMeanDepth() == snapshots[0].getMeanDepth();
+            passed &= snapshots[q].getBumps() == snapshots[0].getBumps();
+            passed &= snapshots[q].getStarved() == snapshots[0].getStarved();
+            for (TaskInterface.TaskType type : TaskInterface.TaskType.values())
+            {
+                passed &= Arrays.equals(snapshots[q].getWaitHistogram(type), snapshots[0].getWaitHistogram(type));
+            }
+        }
+        if (SchedulerMetrics.ENABLED)
+        {
+            passed &= snapshots[0].getBumps() > 0 && snapshots[0].getStarved() > 0;
+            for (int q = 0; q < queues.size(); q++)
+            {
+                if (snapshots[q].getHeapOperations() == 0 || snapshots[q].getCompares() == 0
+                        || snapshots[q].getSwaps() == 0)
+                {
+                    System.out.println("No heap counters recorded for " + queues.get(q));
+                    passed = false;
+                }
+            }
+            passed &= snapshots[0].getComparesPerOperation() >= 1;
+
+            MaxHeap<Integer> heap = new MaxHeap<>(32);
+            for (int num : new int[]{5, 1, 4, 0}) heap.insert(num);
+            SchedulerMetrics drain = new SchedulerMetrics();
+            heap.extractMax(1, num -> { });
+            MetricsSnapshot drained = drain.snapshot();
+            System.out.println("Draining one element: " + drained.getHeapOperations() + " operation, "
+                    + drained.getCompares() + " compares, " + drained.getSwaps() + " moves");
+            passed &= drained.getHeapOperations() == 1 && drained.getCompares() == 2 && drained.getSwaps() == 1;
+        }
+        return passed;
+    }
+
+    private static boolean testPushPop(Integer[] array, Integer push, Integer expected)
+    {
+        System.out.println("Push-popping " + push + " on " + Arrays.toString(array));
+        MaxHeap heap = new MaxHeap(32);
+        for (Integer num : array) heap.insert(num);
+        Integer popped = (Integer)heap.pushPop(push);
+        System.out.println("Popped " + popped + ", expected " + expected);
+
+        Integer replaced = (Integer)heap.replaceTop(push);
+        System.out.println("Replaced top " + replaced);
+        return Objects.equals(expected, popped) && heap.getSize() == array.length && verifyHeap(heap);
+    }
+
+    private static boolean testIntHeap(int[] array, int... extractExpected)
+    {
+        System.out.println("Extracting " + extractExpected.length + " ints from " + Arrays.toString(array));
+        IntMaxHeap heap = new IntMaxHeap(array);
+        System.out.println("Result: " + heap);
+
+        boolean passed = true;
+        for (int i = 2; i <= heap.getSize(); i++)
+        {
+            if (heap.get(heap.parentIndex(i)) < heap.get(i)) passed = false;
+        }
+        for (int expect : extractExpected)
+        {
+            int extracted = heap.extractMax();
+            System.out.println("Extracted " + extracted + ", expected " + expect);
+
+            if (expect != extracted) passed = false;
+        }
+        return passed;
+    }
+
+    private static boolean testLongHeapSort(long... array)
+    {
+        System.out.println("Sorting longs: " + Arrays.toString(array));
+        LongMaxHeap heap = new LongMaxHeap(1);
+        for (long num : array) heap.insert(num);
+        long[] sorted = heap.heapSort();
+        System.out.println("Result: " + Arrays.toString(sorted));
+
+        long[] expected = array.clone();
+        Arrays.sort(expected);
+        return Arrays.equals(expected, sorted) && heap.getSize() == 0;
+    }
+
     private static boolean runTest(BooleanSupplier test)
     {
         System.out.println("Beginning test...");
@@ -99,8 +977,9 @@ public class MaxHeapTest{
 
     public static void main(String[] args)
     {
+        System.setProperty("stardew.metrics", "true"); //counts heap operations in every test
         boolean passedAll = true;
-        int testsPerformed = 5;
+        int testsPerformed = 39;
         int testsPassed = 0;
 
         if (runTest(() -> testInserts(7, 5, -30, 3, 1, 100))) testsPassed++;
@@ -108,6 +987,40 @@ public class MaxHeapTest{
         if (runTest(() -> testMaxExtract(new Integer[]{7, 5, -30, 3, 1, 100}, 100, 7, 5))) testsPassed++;
         if (runTest(() -> testHeapify(5,9))) testsPassed++;
         if (runTest(() -> testHeapifyUp(5, 9))) testsPassed++;
+        if (runTest(() -> testInsertAll(new Integer[]{7, 5, -30, 3, 1, 100}, 100, 7, 5, 4, 3))) testsPassed++;
+        if (runTest(() -> testArity(4, new Integer[]{7, 5, -30, 3, 1, 100, 42, 8, 9, 0, 11}, 100, 42, 11, 9, 8))) testsPassed++;
+        if (runTest(() -> testArity(8, new Integer[]{7, 5, -30, 3, 1, 100, 42, 8, 9, 0, 11}, 100, 42, 11, 9, 8))) testsPassed++;
+        if (runTest(() -> testIndexedHeap())) testsPassed++;
+        if (runTest(() -> testIndexedQueue())) testsPassed++;
+        if (runTest(() -> testBoundedHeap(3, new Integer[]{7, 5, -30, 3, 1, 100, 42, 8, 9, 0, 11}, 100, 42, 11))) testsPassed++;
+        if (runTest(() -> testShrink(1000))) testsPassed++;
+        if (runTest(() -> testDescendingIterator(2, new Integer[]{7, 5, -30, 3, 1, 100}, 100, 7, 5, 3, 1, -30))) testsPassed++;
+        if (runTest(() -> testDescendingIterator(4, new Integer[]{7, 5, -30, 3, 1, 100}, 100, 7, 5, 3, 1, -30))) testsPassed++;
+        if (runTest(() -> testTopK(3, new Integer[]{7, 5, -30, 3, 1, 100, 42, 8, 9, 0, 11}, 100, 42, 11))) testsPassed++;
+        if (runTest(() -> testHeapSort(7, 5, -30, 3, 1, 100, 5))) testsPassed++;
+        if (runTest(() -> testHeapSort())) testsPassed++;
+        if (runTest(() -> testParallelHeapSort(100, 1))) testsPassed++;
+        if (runTest(() -> testParallelHeapSort(100000, 2))) testsPassed++;
+        if (runTest(() -> testPairingHeap(new Integer[]{7, 5, -30, 3, 1, 100, 5}, new Integer[]{8, -2, 64, 0, 3}))) testsPassed++;
+        if (runTest(() -> testKeyedQueue(500, 3))) testsPassed++;
+        if (runTest(() -> testBucketQueue(500, 3))) testsPassed++;
+        if (runTest(() -> testLazyQueue(2000, 5))) testsPassed++;
+        if (runTest(() -> testColumnarQueue(2000, 7))) testsPassed++;
+        if (runTest(() -> testMonteCarlo(12))) testsPassed++;
+        if (runTest(() -> testSweepResume())) testsPassed++;
+        if (runTest(() -> testTaskAllocation(100000))) testsPassed++;
+        if (runTest(() -> testSchedulerMetrics())) testsPassed++;
+        if (runTest(() -> testTraceReplay())) testsPassed++;
+        if (runTest(() -> testCheckpointResume("heap"))) testsPassed++;
+        if (runTest(() -> testCheckpointResume("lazy"))) testsPassed++;
+        if (runTest(() -> testFarmSimulation())) testsPassed++;
+        if (runTest(() -> testShardedQueue(4, 3, 20000))) testsPassed++;
+        if (runTest(() -> testBlockingQueue())) testsPassed++;
+        if (runTest(() -> testTaskDispatcher(100))) testsPassed++;
+        if (runTest(() -> testPushPop(new Integer[]{7, 5, -30, 3, 1, 100}, 4, 100))) testsPassed++;
+        if (runTest(() -> testPushPop(new Integer[]{7, 5, -30, 3, 1, 100}, 200, 200))) testsPassed++;
+        if (runTest(() -> testIntHeap(new int[]{7, 5, -30, 3, 1, 100}, 100, 7, 5, 3, 1, -30))) testsPassed++;
+        if (runTest(() -> testLongHeapSort(7L, 5L, -30L, 3L, 1L, 100L, Long.MAX_VALUE))) testsPassed++;
 
         System.out.println("Passed " + testsPassed + " tests out of " + testsPerformed);
 
@@ -0,0 +1,218 @@
+/**
+ * The values of a SchedulerMetrics at one moment.
+ */
+public class MetricsSnapshot {
+
+    private static final TaskInterface.TaskType[] TYPES = TaskInterface.TaskType.values();
+
+    private final long hours;
+    private final long depth;
+    private final long maxDepth;
+    private final double meanDepth;
+    private final long heapOperations;
+    private final long compares;
+    private final long swaps;
+    private final long bumps;
+    private final long starved;
+    private final long[] waitSums;
+    private final long[] waitCounts;
+    private final long[][] waitHistograms;
+
+    /**
+     * Creates a snapshot. The arrays are indexed by TaskType ordinal and are not copied.
+     */
+    MetricsSnapshot(long hours, long depth, long maxDepth, double meanDepth, long heapOperations, long compares,
+                    long swaps, long bumps, long starved, long[] waitSums, long[] waitCounts, long[][] waitHistograms) {
+        this.hours = hours;
+        this.depth = depth;
+        this.maxDepth = maxDepth;
+        this.meanDepth = meanDepth;
+        this.heapOperations = heapOperations;
+        this.compares = compares;
+        this.swaps = swaps;
+        this.bumps = bumps;
+        this.starved = starved;
+        this.waitSums = waitSums;
+        this.waitCounts = waitCounts;
+        this.waitHistograms = waitHistograms;
+    }
+
+    /**
+     * Returns the number of simulated hours recorded.
+     *
+     * @return the number of hours.
+     */
+    public long getHours() {
+        return hours;
+    }
+
+    /**
+     * Returns the number of tasks in the queue.
+     *
+     * @return the queue depth.
+     */
+    public long getDepth() {
+        return depth;
+    }
+
+    /**
+     * Returns the largest queue depth at the end of any hour.
+     *
+     * @return the largest queue depth.
+     */
+    public long getMaxDepth() {
+        return maxDepth;
+    }
+
+    /**
+     * Returns the mean queue depth at the end of an hour.
+     *
+     * @return the mean queue depth.
+     */
+    public double getMeanDepth() {
+        return meanDepth;
+    }
+
+    /**
+     * Returns the number of heap insert, extract and replace operations.
+     *
+     * @return the number of heap operations.
+     */
+    public long getHeapOperations() {
+        return heapOperations;
+    }
+
+    /**
+     * Returns the number of element compares made by the heaps.
+     *
+     * @return the number of compares.
+     */
+    public long getCompares() {
+        return compares;
+    }
+
+    /**
+     * Returns the number of elements the heaps moved to another slot.
+     *
+     * @return the number of moves.
+     */
+    public long getSwaps() {
+        return swaps;
+    }
+
+    /**
+     * Returns the mean number of compares per heap operation, or 0 before the first operation.
+     *
+     * @return the compares per operation.
+     */
+    public double getComparesPerOperation() {
+        return heapOperations == 0 ? 0 : (double)compares / heapOperations;
+    }
+
+    /**
+     * Returns the mean number of moves per heap operation, or 0 before the first operation.
+     *
+     * @return the moves per operation.
+     */
+    public double getSwapsPerOperation() {
+        return heapOperations == 0 ? 0 : (double)swaps / heapOperations;
+    }
+
+    /**
+     * Returns the number of priority bumps made by update().
+     *
+     * @return the number of bumps.
+     */
+    public long getBumps() {
+        return bumps;
+    }
+
+    /**
+     * Returns the mean number of priority bumps per simulated hour, or 0 before the first hour.
+     *
+     * @return the bumps per hour.
+     */
+    public double getBumpsPerHour() {
+        return hours == 0 ? 0 : (double)bumps / hours;
+    }
+
+    /**
+     * Returns how many times a task reached maxPriority.
+     *
+     * @return the number of starved tasks.
+     */
+    public long getStarved() {
+        return starved;
+    }
+
+    /**
+     * Returns how many tasks of the given type were dequeued.
+     *
+     * @param type A task type.
+     * @return the number of dequeues.
+     */
+    public long getDequeues(TaskInterface.TaskType type) {
+        return waitCounts[type.ordinal()];
+    }
+
+    /**
+     * Returns the mean hours from enqueue to dequeue of the given task type, or 0 if none was dequeued.
+     *
+     * @param type A task type.
+     * @return the mean wait.
+     */
+    public double getMeanWait(TaskInterface.TaskType type) {
+        long count = waitCounts[type.ordinal()];
+        return count == 0 ? 0 : (double)waitSums[type.ordinal()] / count;
+    }
+
+    /**
+     * Returns a copy of the wait histogram of the given task type. See SchedulerMetrics.WAIT_BUCKETS.
+     *
+     * @param type A task type.
+     * @return the wait histogram.
+     */
+    public long[] getWaitHistogram(TaskInterface.TaskType type) {
+        return waitHistograms[type.ordinal()].clone();
+    }
+
+    /**
+     * Returns an upper bound on the given percentile of the waits of the given task type: the largest wait in the
+     * histogram bucket that holds the percentile, or 0 if none was dequeued.
+     *
+     * @param type A task type.
+     * @param p The percentile, between 0 and 100.
+     * @return the wait at the percentile, rounded up to its bucket.
+     */
+    public long getWaitPercentile(TaskInterface.TaskType type, double p) {
+        if (p < 0 || p > 100) throw new IllegalArgumentException("Illegal argument: percentile must be in [0, 100].");
+        long[] histogram = waitHistograms[type.ordinal()];
+        long rank = (long)Math.ceil(p / 100 * waitCounts[type.ordinal()]);
+        long seen = 0;
+        for (int b = 0; b < histogram.length; b++) {
+            seen += histogram[b];
+            if (seen >= rank && seen > 0) return b == 0 ? 0 : (1L << b) - 1;
+        }
+        return 0;
+    }
+
+    /**
+     * Returns a string representation of this snapshot.
+     *
+     * @return a string representation of this snapshot.
+     */
+    public String toString() {
+        StringBuilder s = new StringBuilder();
+        s.append(String.format("hours %d, queue depth %d (max %d, mean %.1f), heap ops %d (%.2f compares, "
+                        + "%.2f swaps per op), bumps %d (%.2f per hour), starved %d", hours, depth, maxDepth,
+                meanDepth, heapOperations, getComparesPerOperation(), getSwapsPerOperation(), bumps,
+                getBumpsPerHour(), starved));
+        for (TaskInterface.TaskType type : TYPES) {
+            if (getDequeues(type) == 0) continue;
+            s.append(String.format("%n  %-16s dequeues %d, wait mean %.1f p50 <= %d p95 <= %d max <= %d", type,
+                    getDequeues(type), getMeanWait(type), getWaitPercentile(type, 50),
+                    getWaitPercentile(type, 95), getWaitPercentile(type, 100)));
+        }
+        return s.toString();
+    }
+}
@@ -0,0 +1,124 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.ToDoubleFunction;
+import java.util.stream.IntStream;
+
+/**
+ * Runs MyLifeInStarDew once for each of a range of seeds, in parallel on a fork-join pool, and summarizes the
+ * totals of all runs. Every run has its own MyLifeInStarDew instance, so the runs share no state and each one
+ * produces the same totals as a single run with the same seed.
+ *
+ * Usage: java MonteCarloRunner <max-priority> <time-to-increment-priority> <total simulation-time in days>
+ * <task-generation-probability> <runs> [<first-seed>] [--queue=...] [--threads=N]
+ */
+public class MonteCarloRunner {
+
+    private final int maxPriority;
+    private final int timeToIncrementLevel;
+    private final int simulationDays;
+    private final double taskGenerationProbability;
+    private final String queueType;
+
+    /**
+     * Creates a runner for the given settings.
+     *
+     * @param maxPriority The maximum priority any task can have.
+     * @param timeToIncrementLevel How long a task waits before its priority is incremented.
+     * @param simulationDays The number of days to simulate.
+     * @param taskGenerationProbability The probability that a task is generated in any hour.
+     * @param queueType One of MyLifeInStarDew.QUEUE_TYPES.
+     */
+    public MonteCarloRunner(int maxPriority, int timeToIncrementLevel, int simulationDays,
+                            double taskGenerationProbability, String queueType) {
+        this.maxPriority = maxPriority;
+        this.timeToIncrementLevel = timeToIncrementLevel;
+        this.simulationDays = simulationDays;
+        this.taskGenerationProbability = taskGenerationProbability;
+        this.queueType = queueType;
+    }
+
+    /**
+     * Runs one simulation for each seed from firstSeed to firstSeed + runs - 1.
+     *
+     * @param firstSeed The seed of the first run.
+     * @param runs The number of runs, at least 1.
+     * @param threads The number of worker threads, at least 1.
+     * @return the result of each run, in seed order.
+     */
+    public SimulationResult[] run(long firstSeed, int runs, int threads) {
+        if (runs < 1) throw new IllegalArgumentException("Illegal argument: runs must >= 1.");
+        if (threads < 1) throw new IllegalArgumentException("Illegal argument: threads must >= 1.");
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            return pool.submit(() -> IntStream.range(0, runs).parallel()
+                    .mapToObj(i -> runOne(firstSeed + i))
+                    .toArray(SimulationResult[]::new)).join();
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Runs a single simulation with the given seed and no log.
+     *
+     * @param seed The seed of the run.
+     * @return the result of the run.
+     */
+    public SimulationResult runOne(long seed) {
+        return new MyLifeInStarDew(maxPriority, timeToIncrementLevel, simulationDays, taskGenerationProbability,
+                seed, queueType).simulate(null);
+    }
+
+    /**
+     * Computes the statistics of one total over a set of results.
+     *
+     * @param results The results of several runs.
+     * @param total Picks the total from a result.
+     * @return the statistics of the total.
+     */
+    public static SampleStatistics summarize(SimulationResult[] results, ToDoubleFunction<SimulationResult> total) {
+        double[] values = new double[results.length];
+        for (int i = 0; i < results.length; i++) values[i] = total.applyAsDouble(results[i]);
+        return new SampleStatistics(values);
+    }
+
+    /**
+     * Main method for the runner.
+     */
+    public static void main(String[] allArgs) {
+        List<String> args = new ArrayList<>();
+        String queueType = "heap";
+        int threads = Runtime.getRuntime().availableProcessors();
+        for (String arg : allArgs) {
+            if (arg.startsWith("--queue=")) queueType = arg.substring("--queue=".length());
+            else if (arg.startsWith("--threads=")) threads = Integer.parseInt(arg.substring("--threads=".length()));
+            else if (arg.startsWith("--")) throw new IllegalArgumentException("Illegal argument: unknown option " + arg + ".");
+            else args.add(arg);
+        }
+        if (args.size() < 5) {
+            System.out.println("Usage: java MonteCarloRunner  <max-priority>   <time-to-increment-priority>   " +
+                    "<total simulation-time in days>   <task-generation-probability>   <runs>   [<first-seed>]   " +
+                    "[--queue=" + String.join("|", MyLifeInStarDew.QUEUE_TYPES) + "]   [--threads=N]");
+            System.exit(1);
+        }
+
+        int days = Integer.parseInt(args.get(2));
+        int runs = Integer.parseInt(args.get(4));
+        long firstSeed = args.size() > 5 ? Long.parseLong(args.get(5)) : 1L;
+        MonteCarloRunner runner = new MonteCarloRunner(Integer.parseInt(args.get(0)), Integer.parseInt(args.get(1)),
+                days, Double.parseDouble(args.get(3)), queueType);
+
+        long start = System.nanoTime();
+        SimulationResult[] results = runner.run(firstSeed, runs, threads);
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        System.out.println("--- Monte Carlo completed ---");
+        System.out.format("Runs: %d (seeds %d to %d), %d days each, %d threads, %.2f s%n",
+                runs, firstSeed, firstSeed + runs - 1, days, threads, seconds);
+        System.out.println("Money made:            " + summarize(results, SimulationResult::getMoneyMade));
+        System.out.println("Deaths/passouts:       " + summarize(results, SimulationResult::getUnluckyCounter));
+        System.out.println("Tasks generated:       " + summarize(results, SimulationResult::getTaskCounter));
+        System.out.println("Simulation hours:      " + summarize(results, SimulationResult::getHourTotal));
+    }
+}
@@ -1,3 +1,13 @@
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import javax.management.JMException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Random;
 
 /**
@@ -13,13 +23,25 @@ public class MyLifeInStarDew {
     private  int simulationDays;
     private  double taskGenerationProbability;
     private  long seed;
-
-    private final int SHOW_HEAP = 1;
-    private final int DEFAULT = 0;
-    private int debugLevel = DEFAULT;
+    private  String queueType = "heap";
+    private  boolean queueGiven = false;
+    private  int arity = 2; //children per node of the heap queue
+    private  SchedulerMetrics metrics; //null when instrumentation is off
+    private  int metricsPeriod = 0; //days between logged snapshots, 0 for none
+    private  Path traceFile; //null when no binary trace is written
+    private  Path checkpointFile; //null when no checkpoints are written
+    private  int checkpointPeriod = 1; //days between checkpoints
+    private  Path resumeFile; //the checkpoint given by --resume, or null
+    private  SimulationCheckpoint resumeFrom; //picked up by the next simulate(), or null
+
+    private static final int QUIET = 0;
+    private static final int DEFAULT = 1;
+    private static final int SHOW_HEAP = 2;
+    private int verbosity = DEFAULT;
 
     private  StarDewDailyClock starDewDailyClock;
     private  TaskGenerator taskGenerator;
+    private  PriorityQueueInterface reusableQueue; //kept by reset() for the next run
 
     private  Random rand;
     boolean  seeded = false;
@@ -29,9 +51,122 @@ public class MyLifeInStarDew {
     private  int unluckyCounter = 0;
     private  int taskCounter = 0;
 
-    private double probabilityOne;
-    private double probabilityTwo;
-    private int detailIndex;
+    /**
+     * The values accepted by the --queue option.
+     */
+    static final List<String> QUEUE_TYPES = List.of("heap", "lazy", "bucket", "columnar", "pairing", "keyed");
+
+    /**
+     * Creates a simulation that is configured by processArguments().
+     */
+    public MyLifeInStarDew() {
+    }
+
+    /**
+     * Creates a seeded simulation with the given settings. Each instance holds all of its own state, so separate
+     * instances can run at the same time on different threads.
+     *
+     * @param maxPriority The maximum priority any task can have.
+     * @param timeToIncrementLevel How long a task waits before its priority is incremented.
+     * @param simulationDays The number of days to simulate.
+     * @param taskGenerationProbability The probability that a task is generated in any hour.
+     * @param seed The seed for every random choice of the run.
+     * @param queueType One of QUEUE_TYPES.
+     */
+    public MyLifeInStarDew(int maxPriority, int timeToIncrementLevel, int simulationDays,
+                           double taskGenerationProbability, long seed, String queueType) {
+        reset(maxPriority, timeToIncrementLevel, simulationDays, taskGenerationProbability, seed, queueType);
+    }
+
+    /**
+     * Prepares this instance for a new seeded run with the given settings, as if it were newly constructed. The
+     * task generator is re-seeded rather than replaced, and the priority queue of the previous run is emptied and
+     * used again when its type does not depend on the settings.
+     *
+     * @param maxPriority The maximum priority any task can have.
+     * @param timeToIncrementLevel How long a task waits before its priority is incremented.
+     * @param simulationDays The number of days to simulate.
+     * @param taskGenerationProbability The probability that a task is generated in any hour.
+     * @param seed The seed for every random choice of the run.
+     * @param queueType One of QUEUE_TYPES.
+     */
+    public void reset(int maxPriority, int timeToIncrementLevel, int simulationDays,
+                      double taskGenerationProbability, long seed, String queueType) {
+        if (!QUEUE_TYPES.contains(queueType))
+            throw new IllegalArgumentException("Illegal argument: unknown queue type " + queueType + ".");
+        configure(maxPriority, timeToIncrementLevel, simulationDays, taskGenerationProbability);
+        if (!queueType.equals(this.queueType)) reusableQueue = null;
+        this.queueType = queueType;
+        this.seed = seed;
+        if (taskGenerator == null) taskGenerator = new TaskGenerator(taskGenerationProbability, seed);
+        else taskGenerator.reset(taskGenerationProbability, seed);
+        seeded = true;
+        moneyMade = 0;
+        badLuck = 0;
+        unluckyCounter = 0;
+        taskCounter = 0;
+    }
+
+    /**
+     * Sets the metrics this simulation records its queue depth and waits into, or null to record none. Heap and
+     * aging counters are only collected if SchedulerMetrics.ENABLED.
+     *
+     * @param metrics The metrics to record into, or null.
+     */
+    public void setMetrics(SchedulerMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * Returns the metrics this simulation records into, or null if it records none.
+     *
+     * @return the metrics, or null.
+     */
+    public SchedulerMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Sets the file each following simulate() writes its binary EventTrace to, or null to write none.
+     *
+     * @param traceFile The trace file, or null.
+     */
+    public void setTrace(Path traceFile) {
+        this.traceFile = traceFile;
+    }
+
+    /**
+     * Sets the file a checkpoint is written to after every given number of days, or null to write none.
+     *
+     * @param checkpointFile The checkpoint file, or null.
+     * @param checkpointPeriod The number of days between checkpoints, at least 1.
+     */
+    public void setCheckpoint(Path checkpointFile, int checkpointPeriod) {
+        if (checkpointPeriod < 1) throw new IllegalArgumentException("Illegal argument: checkpoint period must >= 1.");
+        this.checkpointFile = checkpointFile;
+        this.checkpointPeriod = checkpointPeriod;
+    }
+
+    /**
+     * Prepares this instance to continue the run that wrote the given checkpoint, as reset() prepares it for a new
+     * run. The next simulate() starts with the day after the checkpoint and returns the totals of the whole run.
+     *
+     * @param checkpoint A checkpoint written by a run of any instance.
+     */
+    public void resume(SimulationCheckpoint checkpoint) {
+        configure(checkpoint.getMaxPriority(), checkpoint.getTimeToIncrementLevel(), checkpoint.getSimulationDays(),
+                checkpoint.getTaskGenerationProbability());
+        if (!checkpoint.getQueueType().equals(queueType)) reusableQueue = null;
+        queueType = checkpoint.getQueueType();
+        seeded = checkpoint.isSeeded();
+        seed = checkpoint.getSeed();
+        taskGenerator = checkpoint.getTaskGenerator();
+        moneyMade = checkpoint.getMoneyMade();
+        badLuck = checkpoint.getBadLuck();
+        unluckyCounter = checkpoint.getUnluckyCounter();
+        taskCounter = checkpoint.getTaskCounter();
+        resumeFrom = checkpoint;
+    }
 
     /**
      * Show usage for the program.
@@ -44,7 +179,14 @@ public class MyLifeInStarDew {
                         "<time-to-increment-priority>   " +
                         "<total simulation-time in days>   " +
                         "<task-generation-probability>   " +
-                        "[<seed>]");
+                        "[<seed>]   " +
+                        "[--queue=heap|lazy|bucket|columnar|pairing|keyed]   " +
+                        "[--arity[=<children>]]   " +
+                        "[--quiet|--debug]   " +
+                        "[--metrics[=<days>]]   " +
+                        "[--trace=<file>]   " +
+                        "[--checkpoint=<file> [--checkpoint-days=<days>]]\n" +
+                        "   or: java MyLifeInStarDew --resume=<file> [--quiet|--debug] [...]");
         System.exit(1);
     }
 
@@ -52,39 +194,154 @@ public class MyLifeInStarDew {
      * Processes the arguments
      * @param args - the String arguments for the program
      */
-    private void processArguments(String[] args) {
+    private void processArguments(String[] allArgs) {
+        List<String> positional = new ArrayList<>();
+        for (String arg : allArgs) {
+            if (arg.startsWith("--")) processOption(arg);
+            else positional.add(arg);
+        }
+        String[] args = positional.toArray(new String[0]);
+        if (resumeFile != null) {
+            if (args.length > 0 || queueGiven)
+                throw new IllegalArgumentException("Illegal argument: --resume takes the settings of the checkpoint.");
+            try {
+                resume(SimulationCheckpoint.read(resumeFile));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return;
+        }
+        if (args.length < 4) showUsage();
+        if (arity != 2 && !queueType.equals("heap"))
+            throw new IllegalArgumentException("Illegal argument: --arity needs --queue=heap.");
+
+        configure(Integer.parseInt(args[0]), Integer.parseInt(args[1]), Integer.parseInt(args[2]),
+                Double.parseDouble(args[3]));
+
+        seed = 0L; //needs to be a long type
+        if (args.length == 5) {
+            seed = Long.parseLong(args[4]);
+            taskGenerator = new TaskGenerator(taskGenerationProbability, seed);
+            seeded = true;
+        } else {
+            taskGenerator = new TaskGenerator(taskGenerationProbability);
+        }
+    }
 
-        maxPriority = Integer.parseInt(args[0]);
+    /**
+     * Checks and stores the simulation settings.
+     */
+    private void configure(int maxPriority, int timeToIncrementLevel, int simulationDays,
+                           double taskGenerationProbability) {
+        this.maxPriority = maxPriority;
         if (maxPriority < 1) throw new IllegalArgumentException("Illegal argument: maxPriorityLevel must >= 1.");
 
-        timeToIncrementLevel = Integer.parseInt(args[1]);
+        this.timeToIncrementLevel = timeToIncrementLevel;
         if (timeToIncrementLevel < 1)
             throw new IllegalArgumentException("Illegal argument: time-to-increment-level must >= 1.");
 
-        simulationDays = Integer.parseInt(args[2]);
+        this.simulationDays = simulationDays;
         starDewDailyClock = new StarDewDailyClock();
         if (simulationDays < 1) throw new IllegalArgumentException("Illegal argument: simulationTime must >= 1.");
 
-        taskGenerationProbability = Double.parseDouble(args[3]);
+        this.taskGenerationProbability = taskGenerationProbability;
+    }
 
-        seed = 0L; //needs to be a long type
-        if (args.length == 5) {
-            seed = Long.parseLong(args[4]);
-            taskGenerator = new TaskGenerator(taskGenerationProbability, seed);
-            seeded = true;
+    /**
+     * Processes a single --name=value option.
+     * @param option - the option, including its leading dashes
+     */
+    private void processOption(String option) {
+        int split = option.indexOf('=');
+        String name = split < 0 ? option : option.substring(0, split);
+        String value = split < 0 ? "" : option.substring(split + 1);
+
+        if (name.equals("--queue")) {
+            if (!QUEUE_TYPES.contains(value))
+                throw new IllegalArgumentException("Illegal argument: unknown queue type " + value + ".");
+            queueType = value;
+            queueGiven = true;
+        } else if (name.equals("--arity")) {
+            arity = value.isEmpty() ? MaxHeap.DEFAULT_ARITY : Integer.parseInt(value);
+            if (arity < 2) throw new IllegalArgumentException("Illegal argument: arity must >= 2.");
+        } else if (name.equals("--metrics")) {
+            metricsPeriod = value.isEmpty() ? 0 : Integer.parseInt(value);
+            if (metricsPeriod < 0) throw new IllegalArgumentException("Illegal argument: metrics period must >= 0.");
+            System.setProperty("stardew.metrics", "true"); //before SchedulerMetrics is first loaded
+            metrics = new SchedulerMetrics();
+        } else if (name.equals("--trace")) {
+            if (value.isEmpty()) throw new IllegalArgumentException("Illegal argument: --trace needs a file.");
+            traceFile = Paths.get(value);
+        } else if (name.equals("--checkpoint")) {
+            if (value.isEmpty()) throw new IllegalArgumentException("Illegal argument: --checkpoint needs a file.");
+            checkpointFile = Paths.get(value);
+        } else if (name.equals("--checkpoint-days")) {
+            checkpointPeriod = Integer.parseInt(value);
+            if (checkpointPeriod < 1) throw new IllegalArgumentException("Illegal argument: checkpoint period must >= 1.");
+        } else if (name.equals("--resume")) {
+            if (value.isEmpty()) throw new IllegalArgumentException("Illegal argument: --resume needs a file.");
+            resumeFile = Paths.get(value);
+        } else if (option.equals("--quiet")) {
+            verbosity = QUIET;
+        } else if (option.equals("--debug")) {
+            verbosity = SHOW_HEAP;
         } else {
-            taskGenerator = new TaskGenerator(taskGenerationProbability);
+            throw new IllegalArgumentException("Illegal argument: unknown option " + option + ".");
+        }
+    }
+
+    /**
+     * Creates the priority queue selected by the --queue option, or empties and returns the one kept from the
+     * previous run. The lazy and bucket queues are built for one maxPriority, so they are always created anew.
+     *
+     * @return an empty priority queue
+     */
+    private PriorityQueueInterface createPriorityQueue() {
+        if (reusableQueue != null && !queueType.equals("lazy") && !queueType.equals("bucket")) {
+            reusableQueue.drainTo(Integer.MAX_VALUE, task -> { });
+            return reusableQueue;
         }
+        if (queueType.equals("heap")) return new MyPriorityQueue(32, arity);
+        return newPriorityQueue(queueType, timeToIncrementLevel, maxPriority);
+    }
+
+    /**
+     * Creates an empty priority queue of the given type.
+     *
+     * @param queueType One of QUEUE_TYPES.
+     * @param timeToIncrementLevel How long a task waits before its priority is incremented.
+     * @param maxPriority The maximum priority any task can have.
+     * @return an empty priority queue
+     */
+    static PriorityQueueInterface newPriorityQueue(String queueType, int timeToIncrementLevel, int maxPriority) {
+        if (queueType.equals("lazy")) {
+            return new LazyAgingPriorityQueue(timeToIncrementLevel, maxPriority);
+        }
+        if (queueType.equals("bucket")) {
+            return new BucketPriorityQueue(maxPriority);
+        }
+        if (queueType.equals("columnar")) {
+            return new ColumnarPriorityQueue();
+        }
+        if (queueType.equals("pairing")) {
+            return new PairingPriorityQueue();
+        }
+        if (queueType.equals("keyed")) {
+            return new KeyedPriorityQueue();
+        }
+        return new MyPriorityQueue();
     }
 
     /**
      * Gets the type of Task based on Luck of the Day,
      * random probability, and current energy levels.
+     * @param rand - the random number generator of the day
+     * @param currentEnergy - the energy left
      * @param luckOfTheDay - the daily luckiness
      */
-    private TaskInterface.TaskType getTaskType(double luckOfTheDay){
-        probabilityOne = rand.nextDouble();
-        if (taskGenerator.getCurrentEnergyStorage() < 50) { //foraging and socializing
+    static TaskInterface.TaskType getTaskType(Random rand, int currentEnergy, double luckOfTheDay){
+        double probabilityOne = rand.nextDouble();
+        if (currentEnergy < 50) { //foraging and socializing
             if(probabilityOne > 0.5) {
                 return TaskInterface.TaskType.FORAGING;
             }
@@ -96,7 +353,7 @@ public class MyLifeInStarDew {
             return TaskInterface.TaskType.FISHING;
         }
         else {
-            probabilityTwo = rand.nextDouble();
+            double probabilityTwo = rand.nextDouble();
             if(probabilityOne > 0.5) { //even number
                 if (probabilityTwo > 0.49) { //higher than 50
                     return TaskInterface.TaskType.FISHING;
@@ -115,51 +372,90 @@ public class MyLifeInStarDew {
     }
 
     /**
-     * Gets the details of a particular Task specific to each sub-category of Task.
-     *
-     * @param taskType - the type of Task
+     * Randomly picks the detail id of a new task.
+     * @param rand - the random number generator of the day
+     * @return the index of one of the first four details of a type in Task
      */
-    private String getDetails(TaskInterface.TaskType taskType) {
-        detailIndex = rand.nextInt();
+    static int getDetailId(Random rand) {
+        int detailIndex = rand.nextInt();
         if(detailIndex < 0){ detailIndex = (detailIndex*(-1)); }
-        detailIndex = detailIndex % 4;
-        if(taskType == Task.TaskType.MINING) {
-            String[] miningDetails = {"for Copper", "for Iron", "for Gold", "for Diamonds", "for Rocks",};
-            return miningDetails[detailIndex];
-        }
-        if(taskType == Task.TaskType.FISHING) {
-            String[] fishingDetails = {"in the Ocean", "in the River", "in the Pond","in the Lake", "in the Hatcheries",};
-            return fishingDetails[detailIndex];
-        }
-        if(taskType == Task.TaskType.FARM_MAINTENANCE) {
-            String[] maintenanceDetails = {"of Harvesting Wheat", "of Clearing Rocks", "of Watering Plants","of Wood Chopping", "of Beautification",};
-            return maintenanceDetails[detailIndex];
-        }
-        if(taskType == Task.TaskType.FORAGING) {
-            String[] foragingDetails = {"for Mushrooms", "for Berries", "for Roots","for Flowers", "for Herbs",};
-            return foragingDetails[detailIndex];
-        }
-        if(taskType == Task.TaskType.FEEDING) {
-            String[] animalDetails = {"the Goats", "the Chickens", "the Cows","the Pigs", "the Ducks",};
-            return animalDetails[detailIndex];
-        }
-        if(taskType == Task.TaskType.SOCIALIZING) {
-            String[] socialDetails = {"with Mayor Lewis", "with Store Owner Pierre", "with Carpenter Robin","with Blacksmith Clint", "with the Wizard",};
-            return socialDetails[detailIndex];
-        }
-        else { return "nothing to see here"; } //should never reach
+        return detailIndex % 4;
     }
 
     /**
-     * Runs the simulation of Task management with a specified time period.
+     * Runs the simulation of Task management with a specified time period. Output goes through one buffered
+     * writer that is flushed at the end; in quiet mode only the final summary is written.
      */
         public  void runSimulation() {
-            PriorityQueueInterface priorityQueue = new MyPriorityQueue();
+            PrintWriter out = new PrintWriter(new BufferedWriter(new OutputStreamWriter(System.out), 1 << 16));
+            if (metrics != null) {
+                try {
+                    metrics.register();
+                } catch (JMException e) {
+                    throw new IllegalStateException("Could not register " + SchedulerMetrics.OBJECT_NAME + ".", e);
+                }
+            }
+            SimulationResult result = simulate(verbosity >= DEFAULT ? out : null);
 
-            int day = 1;
+            logSummary(out, simulationDays, result);
+            if (metrics != null) out.println("Metrics: " + metrics.snapshot());
+            out.flush();
+        }
+
+    /**
+     * Runs the simulation once and returns its totals, writing the hourly log to the given writer and the binary
+     * trace to the file given to setTrace(), if any. Call reset() before simulating the same instance again.
+     *
+     * @param out - receives the hourly log, or null for no log
+     * @return the totals of the run
+     */
+        public SimulationResult simulate(PrintWriter out) {
+            EventTrace trace = null;
+            if (traceFile != null) {
+                try {
+                    trace = new EventTrace(traceFile, maxPriority, timeToIncrementLevel, simulationDays,
+                            taskGenerationProbability, seed, seeded && resumeFrom == null ? EventTrace.SEEDED : 0, queueType);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+            try {
+                return simulate(out, trace);
+            } finally {
+                if (trace != null) {
+                    try {
+                        trace.close();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }
+            }
+        }
+
+    /**
+     * Runs the simulation once, writing the hourly log and the binary trace to the given outputs if not null.
+     */
+        private SimulationResult simulate(PrintWriter out, EventTrace trace) {
+            boolean log = out != null;
+            PriorityQueueInterface priorityQueue = createPriorityQueue();
+            reusableQueue = priorityQueue;
+            Task finishedTask = null; //last task worked on, re-added by the next dequeue
+
+            int firstDay = 0;
             int hourTotal = 0;
+            if (resumeFrom != null) {
+                firstDay = resumeFrom.getCompletedDays();
+                hourTotal = resumeFrom.getHourTotal();
+                finishedTask = resumeFrom.getFinishedTask();
+                for (Task task : resumeFrom.getQueuedTasks()) {
+                    if (metrics != null) metrics.enqueued(task, task.getEnqueuedHour());
+                    priorityQueue.enqueue(task);
+                }
+                resumeFrom = null;
+            }
+            int day = firstDay + 1;
 
-            for (int currentTime = 0; currentTime < simulationDays; currentTime++) {
+            for (int currentTime = firstDay; currentTime < simulationDays; currentTime++) {
 
                 int hour = 0;
                 int dailyMoney = 0;
@@ -167,7 +463,8 @@ public class MyLifeInStarDew {
 
                 if (seeded == true) {
                     seed = seed << 2; //allows for different lucks and unfortunate probabilities
-                    rand = new Random(seed);
+                    if (rand == null) rand = new Random(seed);
+                    else rand.setSeed(seed);
                 } else {
                     rand = new Random();
                 }
@@ -175,45 +472,58 @@ public class MyLifeInStarDew {
                 double luckOfTheDay = rand.nextDouble();
                 double unluckyProbablity = rand.nextDouble();
 
-                System.out.println("+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+");
-                System.out.format("\t\tDAY: %s\tLUCK: %.2f\n", day, luckOfTheDay);
-                System.out.println("+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+");
+                if (log) logDayStart(out, day, luckOfTheDay);
+                if (trace != null) {
+                    long luckBits = Double.doubleToRawLongBits(luckOfTheDay);
+                    trace.record(EventTrace.DAY_START, hourTotal, 0, -1, -1, day, 0, (int)(luckBits >>> 32),
+                            (int)luckBits);
+                }
 
                 while(!starDewDailyClock.getNight()) {
 
-                    if (debugLevel == SHOW_HEAP) System.out.println(priorityQueue);
+                    if (log && verbosity == SHOW_HEAP) logQueue(out, priorityQueue, finishedTask);
 
                     if (taskGenerator.generateTask()) {
-                        TaskInterface.TaskType typeOfTask = getTaskType(luckOfTheDay);
-                        Task newTask = taskGenerator.getNewTask(hourTotal, typeOfTask, getDetails(typeOfTask));
-                        System.out.format("\t\t\t\t\t\t\tNEW TASK: %s\n",newTask.toString());
+                        TaskInterface.TaskType typeOfTask = getTaskType(rand, taskGenerator.getCurrentEnergyStorage(),
+                                luckOfTheDay);
+                        Task newTask = taskGenerator.getNewTask(hourTotal, typeOfTask, getDetailId(rand));
+                        if (log) TaskGenerator.printNewTask(out, newTask);
+                        if (trace != null) trace.record(EventTrace.NEW_TASK, hourTotal, hour, newTask,
+                                taskGenerator.getCurrentEnergyStorage(), moneyMade);
+                        if (metrics != null) metrics.enqueued(newTask, hourTotal); //before a columnar copy
                         priorityQueue.enqueue(newTask);
                         taskCounter++;
                     }
 
-                    System.out.format("\t\t%s\t", starDewDailyClock.toString(hour));
+                    if (log) {
+                        out.print("\t\t");
+                        out.print(starDewDailyClock.toString(hour));
+                        out.print('\t');
+                    }
 
-                    if(!priorityQueue.isEmpty()) {
-                        Task currentTask = priorityQueue.dequeue();
-                        System.out.println(taskGenerator.toString(currentTask, currentTask.getTaskType()));
+                    if(finishedTask != null || !priorityQueue.isEmpty()) {
+                        Task currentTask;
+                        if (finishedTask != null) {
+                            if (metrics != null) metrics.enqueued(finishedTask, hourTotal);
+                            currentTask = priorityQueue.enqueueThenDequeue(finishedTask); //re-adds removed task
+                            finishedTask = null;
+                        } else {
+                            currentTask = priorityQueue.dequeue();
+                        }
+                        if (metrics != null) metrics.dequeued(currentTask, hourTotal);
+                        if (log) taskGenerator.println(out, currentTask);
+                        if (trace != null) trace.record(EventTrace.WORK, hourTotal, hour, currentTask,
+                                taskGenerator.getCurrentEnergyStorage(), moneyMade);
                         taskGenerator.decrementEnergyStorage(currentTask.getTaskType());
                         badLuck = taskGenerator.getUnlucky(currentTask, unluckyProbablity);
 
                         if (badLuck > 0) {
-                            if (badLuck == 1) { //Passing-out
-                                System.out.println("\t\t\t\t\t =====================================================");
-                                System.out.println("\t\t\t\t\t\t\t" + "YOU PASSED OUT");
-                                System.out.println("\t\t\t\t\t\t\t" + "Energy meter depleted by 50% and");
-                            } else if (badLuck == 2) { //Death in the Mines
-                                System.out.println("\t\t\t\t\t =====================================================");
-                                System.out.println("\t\t\t\t\t\t" + "YOU DIED in the mines");
-                                System.out.println("\t\t\t\t\t\t" + "Energy meter depleted by 75% and");
-                                starDewDailyClock.setCurrentClockNumber(19);
-                            }
+                            if (badLuck == 2) starDewDailyClock.setCurrentClockNumber(19); //Death in the Mines
                             moneyMade = (moneyMade - (moneyMade >>4));
                             unluckyCounter++;
-                            System.out.println("\t\t\t\t\t\t\t" + "Doctor's visit took 25% of your income!");
-                            System.out.println("\t\t\t\t\t =====================================================");
+                            if (log) logBadLuck(out, badLuck);
+                            if (trace != null) trace.record(badLuck == 1 ? EventTrace.PASSED_OUT : EventTrace.DIED,
+                                    hourTotal, hour, currentTask, taskGenerator.getCurrentEnergyStorage(), moneyMade);
                         }
                         priorityQueue.update(timeToIncrementLevel, maxPriority); //updates priorities and shifts
                         int cashMadeThisTask = currentTask.getTaskType().getMoneyPerHour();
@@ -223,46 +533,138 @@ public class MyLifeInStarDew {
 
                         currentTask.setPriority(0);
                         currentTask.resetWaitingTime();
-                        priorityQueue.enqueue(currentTask); //re-adds removed task
+                        finishedTask = currentTask;
                     }
                     else {
-                        System.out.println();
+                        if (log) out.println();
+                        if (trace != null) trace.record(EventTrace.IDLE, hourTotal, hour, null,
+                                taskGenerator.getCurrentEnergyStorage(), moneyMade);
                     }
                     if(taskGenerator.getCurrentEnergyStorage() < 0) { //Energy dips below 0 then
-                        System.out.println("\t\t\t\t\t =-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=");
-                        System.out.println("\t\t\t\t\t" + " THE DAY IS OVER");
-                        System.out.println("\t\t\t\t\t" + " Energy sufficiently depleted!");
-                        System.out.println("\t\t\t\t\t =-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=");
+                        if (log) logDayOver(out);
+                        if (trace != null) trace.record(EventTrace.DAY_OVER, hourTotal, hour, null,
+                                taskGenerator.getCurrentEnergyStorage(), moneyMade);
                         starDewDailyClock.setCurrentClockNumber(19);
                     }
                     starDewDailyClock.incrementCurrentClockNumber();
                     hour++;
                     hourTotal++;
+                    if (metrics != null) metrics.hourEnded();
                 }
 
                 taskGenerator.resetCurrentEnergyStorage(); //reset energy
-                System.out.println("\t\t~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~");
-                System.out.format("\t\t\t\t\t Cash made today: +%d$\n", dailyMoney);
-                System.out.println("\t\t~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~");
+                if (log) logDayEnd(out, dailyMoney);
+                if (trace != null) trace.record(EventTrace.DAY_END, hourTotal, hour, -1, -1, day, 0, dailyMoney,
+                        moneyMade);
+                if (log && metrics != null && metricsPeriod > 0 && day % metricsPeriod == 0) {
+                    out.println("METRICS after day " + day + ": " + metrics.snapshot());
+                    out.println();
+                }
+                if (checkpointFile != null && day % checkpointPeriod == 0) {
+                    writeCheckpoint(day, hourTotal, finishedTask, priorityQueue);
+                }
                 day++;
-                System.out.println();
             }
-            System.out.println("--- Simulation completed ---");
-            System.out.println("Simulation time: " + simulationDays + " days");
-            System.out.println("Total Tasks generated: " + taskCounter);
-            System.out.println("Total Simulation hours: " + hourTotal + " hours");
-            System.out.println("Total Money made: " + moneyMade + "$");
-            System.out.println("Total deaths/passouts: " + unluckyCounter);
+            if (trace != null) trace.record(EventTrace.RUN_END, hourTotal, 0, -1, -1, taskCounter, unluckyCounter,
+                    taskGenerator.getCurrentEnergyStorage(), moneyMade);
+            return new SimulationResult(moneyMade, unluckyCounter, taskCounter, hourTotal);
+        }
+
+    /**
+     * Writes a checkpoint of the run after the given number of days. The queue only hands out its tasks with their
+     * priorities and waiting times up to date by dequeuing them, so they are drained and enqueued again; tasks are
+     * ordered by priority and then hourCreated, which is unique, so the queue dequeues them in the same order after.
+     */
+    private void writeCheckpoint(int completedDays, int hourTotal, Task finishedTask, PriorityQueueInterface queue) {
+        List<Task> queued = new ArrayList<>();
+        queue.drainTo(Integer.MAX_VALUE, queued::add);
+        for (Task task : queued) queue.enqueue(task);
+        try {
+            new SimulationCheckpoint(maxPriority, timeToIncrementLevel, simulationDays, taskGenerationProbability,
+                    queueType, seeded, seed, completedDays, hourTotal, moneyMade, badLuck,
+                    unluckyCounter, taskCounter, taskGenerator, finishedTask, queued.toArray(new Task[0]))
+                    .write(checkpointFile);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Logs the queue at the start of an hour for --debug, followed by the task worked on in the last hour. That task
+     * is outside the queue until this hour re-enqueues it, so the queue alone would not show it.
+     */
+    static void logQueue(PrintWriter out, PriorityQueueInterface priorityQueue, Task workedTask) {
+        out.println(priorityQueue);
+        if (workedTask != null) {
+            out.print("\t\t\t\t\t\t\tWORKED TASK: ");
+            out.print(workedTask);
+            out.print('\n');
+        }
+    }
+
+    /**
+     * Logs the banner that starts a day.
+     */
+    static void logDayStart(PrintWriter out, int day, double luckOfTheDay) {
+        out.println("+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+");
+        out.format("\t\tDAY: %s\tLUCK: %.2f\n", day, luckOfTheDay);
+        out.println("+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+-+");
+    }
+
+    /**
+     * Logs a pass-out (badLuck 1) or a death in the mines (badLuck 2) and the doctor's fee.
+     */
+    static void logBadLuck(PrintWriter out, int badLuck) {
+        if (badLuck == 1) { //Passing-out
+            out.println("\t\t\t\t\t =====================================================");
+            out.println("\t\t\t\t\t\t\t" + "YOU PASSED OUT");
+            out.println("\t\t\t\t\t\t\t" + "Energy meter depleted by 50% and");
+        } else { //Death in the Mines
+            out.println("\t\t\t\t\t =====================================================");
+            out.println("\t\t\t\t\t\t" + "YOU DIED in the mines");
+            out.println("\t\t\t\t\t\t" + "Energy meter depleted by 75% and");
         }
+        out.println("\t\t\t\t\t\t\t" + "Doctor's visit took 25% of your income!");
+        out.println("\t\t\t\t\t =====================================================");
+    }
+
+    /**
+     * Logs the end of a day whose energy ran out.
+     */
+    static void logDayOver(PrintWriter out) {
+        out.println("\t\t\t\t\t =-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=");
+        out.println("\t\t\t\t\t" + " THE DAY IS OVER");
+        out.println("\t\t\t\t\t" + " Energy sufficiently depleted!");
+        out.println("\t\t\t\t\t =-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=-=");
+    }
+
+    /**
+     * Logs the money made in a day.
+     */
+    static void logDayEnd(PrintWriter out, int dailyMoney) {
+        out.println("\t\t~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~");
+        out.format("\t\t\t\t\t Cash made today: +%d$\n", dailyMoney);
+        out.println("\t\t~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~~");
+        out.println();
+    }
+
+    /**
+     * Logs the totals of a finished run.
+     */
+    static void logSummary(PrintWriter out, int simulationDays, SimulationResult result) {
+        out.println("--- Simulation completed ---");
+        out.println("Simulation time: " + simulationDays + " days");
+        out.println("Total Tasks generated: " + result.getTaskCounter());
+        out.println("Total Simulation hours: " + result.getHourTotal() + " hours");
+        out.println("Total Money made: " + result.getMoneyMade() + "$");
+        out.println("Total deaths/passouts: " + result.getUnluckyCounter());
+    }
 
     /**
      * Main method for the program.
      */
     public static void main(String[] args) {
         MyLifeInStarDew simulation = new MyLifeInStarDew();
-        if (args.length < 3) {
-            simulation.showUsage();
-        }
         simulation.processArguments(args);
         simulation.runSimulation();
     }
@@ -1,3 +1,5 @@
+import java.util.function.Consumer;
+
 /**
  * Provides priority queue management via enqueue, dequeue, isEmpty and update methods.
  *
@@ -16,6 +18,16 @@ public class MyPriorityQueue extends MaxHeap implements PriorityQueueInterface{
         super(heapsize);
     }
 
+    /**
+     * Creates a new priority queue backed by a d-ary heap with the provided initial capacity.
+     *
+     * @param capacity The initial capacity of this queue.
+     * @param arity The number of children per heap node, such as MaxHeap.DEFAULT_ARITY.
+     */
+    public MyPriorityQueue(int capacity, int arity) {
+        super(capacity, arity);
+    }
+
     /**
      * Creates a new priority queue with an initial capacity of 32.
      */
@@ -48,6 +60,32 @@ public class MyPriorityQueue extends MaxHeap implements PriorityQueueInterface{
         return task;
     }
 
+    /**
+     * Removes up to n tasks with the highest priorities, passing each to the consumer in priority order.
+     *
+     * @param n The maximum number of tasks to remove.
+     * @param consumer Receives each removed task.
+     * @return the number of tasks removed.
+     */
+    @Override
+    public int drainTo(int n, Consumer<? super Task> consumer) {
+        return extractMax(n, task -> consumer.accept((Task)task));
+    }
+
+    /**
+     * Inserts the given task, then removes and returns the task with the highest priority in this queue.
+     *
+     * @param task - Task to enqueue.
+     * @return the task with the highest priority in this queue, which may be the given task.
+     */
+    @Override
+    public Task enqueueThenDequeue(Object task) {
+        if (task == null){
+            throw new NullPointerException();
+        }
+        return (Task)pushPop((Comparable)task);
+    }
+
     /**
      * Returns true if this queue is empty.
      *
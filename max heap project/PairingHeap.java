@@ -0,0 +1,248 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.function.Consumer;
+
+/**
+ * Max heap stored as a pairing heap: a tree of nodes where each node is no smaller than its children, with the
+ * children of a node kept in a linked list. insert() and meld() only link two roots, so they run in O(1).
+ * extractMax() pairs up the root's children left to right and then folds the pairs right to left, in amortized
+ * O(log n). increaseKey() cuts a node out of its parent and links it with the root, also within amortized O(log n).
+ *
+ * insert() returns the node that holds the element. Nodes stay valid handles until their element is extracted,
+ * including after their heap is melded into another one, at which point they belong to the other heap.
+ *
+ * @param <T> The type of element in this PairingHeap.
+ */
+public class PairingHeap<T extends Comparable<T>> {
+
+    /**
+     * A node of a pairing heap, which also serves as the handle for its element.
+     *
+     * @param <T> The type of element in the node.
+     */
+    public static final class Node<T> {
+        private T value;
+        private Node<T> child;
+        private Node<T> next;
+        private Node<T> prev; //previous sibling, or the parent for a leftmost child
+
+        private Node(T value) {
+            this.value = value;
+        }
+
+        /**
+         * Returns the element held by this node.
+         *
+         * @return the element held by this node.
+         */
+        public T getValue() {
+            return value;
+        }
+    }
+
+    protected int heapsize;
+    private Node<T> root;
+
+    /**
+     * Returns the number of elements in this heap.
+     *
+     * @return the number of elements in this heap.
+     */
+    public int getSize() {
+        return heapsize;
+    }
+
+    /**
+     * Inserts the given element into this heap.
+     *
+     * @param data The element to insert.
+     * @return the node holding the element, for use with increaseKey().
+     */
+    public Node<T> insert(T data) {
+        if (data == null){
+            throw new NullPointerException();
+        }
+        Node<T> node = new Node<>(data);
+        root = root == null ? node : link(root, node);
+        heapsize++;
+        if (SchedulerMetrics.ENABLED) SchedulerMetrics.countOperation();
+        return node;
+    }
+
+    /**
+     * Returns the greatest element of this heap without removing it.
+     *
+     * @return the greatest element of this heap.
+     */
+    public T peek() {
+        if (root == null) throw new NoSuchElementException();
+        return root.value;
+    }
+
+    /**
+     * Removes and returns the greatest element of this heap.
+     *
+     * @return the greatest element of this heap.
+     */
+    public T extractMax() {
+        if (root == null) throw new NoSuchElementException();
+        Node<T> max = root;
+        root = mergePairs(max.child);
+        max.child = null;
+        heapsize--;
+        if (SchedulerMetrics.ENABLED) SchedulerMetrics.countOperation();
+        return max.value;
+    }
+
+    /**
+     * Inserts the given element, then removes and returns the greatest element of this heap. If the given element
+     * is at least as great as every element in the heap, it is returned straight away.
+     *
+     * @param data The element to insert.
+     * @return the greatest element, which may be data itself.
+     */
+    public T pushPop(T data) {
+        if (data == null){
+            throw new NullPointerException();
+        }
+        if (root == null || root.value.compareTo(data) <= 0) {
+            if (SchedulerMetrics.ENABLED) {
+                SchedulerMetrics.countOperation();
+                if (root != null) SchedulerMetrics.countSift(1, 0);
+            }
+            return data;
+        }
+        T max = extractMax();
+        insert(data);
+        return max;
+    }
+
+    /**
+     * Moves every element of the other heap into this one in O(1). The other heap is left empty, and its nodes
+     * now belong to this heap.
+     *
+     * @param other The heap to meld into this one.
+     */
+    public void meld(PairingHeap<T> other) {
+        if (other == this || other.root == null) return;
+        root = root == null ? other.root : link(root, other.root);
+        heapsize += other.heapsize;
+        other.root = null;
+        other.heapsize = 0;
+    }
+
+    /**
+     * Replaces the element of the given node with a greater or equal one and moves the node to its new place.
+     *
+     * @param node A node of this heap.
+     * @param data The new element, no smaller than the current one.
+     */
+    public void increaseKey(Node<T> node, T data) {
+        if (data == null){
+            throw new NullPointerException();
+        }
+        if (data.compareTo(node.value) < 0)
+            throw new IllegalArgumentException("Illegal argument: new key must >= current key.");
+        node.value = data;
+        increaseKey(node);
+    }
+
+    /**
+     * Moves the given node to its new place after its element has grown in place.
+     *
+     * @param node A node of this heap.
+     */
+    public void increaseKey(Node<T> node) {
+        if (node == root) return;
+        if (node.prev.child == node) {
+            if (node.prev.value.compareTo(node.value) >= 0) return;
+            node.prev.child = node.next;
+        } else {
+            node.prev.next = node.next;
+        }
+        if (node.next != null) node.next.prev = node.prev;
+        node.next = null;
+        node.prev = null;
+        root = link(root, node);
+    }
+
+    /**
+     * Passes every node of this heap to the consumer, in no particular order. The consumer must not change the
+     * shape of the heap.
+     *
+     * @param consumer Receives each node.
+     */
+    protected void forEachNode(Consumer<Node<T>> consumer) {
+        if (root == null) return;
+        List<Node<T>> stack = new ArrayList<>();
+        stack.add(root);
+        while (!stack.isEmpty()) {
+            Node<T> node = stack.remove(stack.size() - 1);
+            consumer.accept(node);
+            for (Node<T> c = node.child; c != null; c = c.next) stack.add(c);
+        }
+    }
+
+    /**
+     * Links two roots, making the smaller one the leftmost child of the greater one. For SchedulerMetrics this is
+     * one compare and one move.
+     */
+    private Node<T> link(Node<T> first, Node<T> second) {
+        if (SchedulerMetrics.ENABLED) SchedulerMetrics.countSift(1, 1);
+        if (second.value.compareTo(first.value) > 0) {
+            Node<T> b = first;
+            first = second;
+            second = b;
+        }
+        second.next = first.child;
+        if (first.child != null) first.child.prev = second;
+        second.prev = first;
+        first.child = second;
+        return first;
+    }
+
+    /**
+     * Combines a list of siblings into one tree: links them in pairs left to right, then links the pairs together
+     * right to left.
+     */
+    private Node<T> mergePairs(Node<T> first) {
+        if (first == null) return null;
+        Node<T> pairs = null; //linked pairs, last pair first, chained through next
+        while (first != null) {
+            Node<T> left = first;
+            Node<T> right = left.next;
+            first = right == null ? null : right.next;
+            left.next = null;
+            left.prev = null;
+            if (right != null) {
+                right.next = null;
+                right.prev = null;
+                left = link(left, right);
+            }
+            left.next = pairs;
+            pairs = left;
+        }
+        Node<T> result = pairs;
+        pairs = pairs.next;
+        result.next = null;
+        while (pairs != null) {
+            Node<T> pair = pairs;
+            pairs = pairs.next;
+            pair.next = null;
+            result = link(result, pair);
+        }
+        return result;
+    }
+
+    /**
+     * Returns a string representation of this heap.
+     *
+     * @return a string representation of this heap.
+     */
+    public String toString() {
+        List<T> values = new ArrayList<>(heapsize);
+        forEachNode(node -> values.add(node.value));
+        return values.toString();
+    }
+}
@@ -0,0 +1,79 @@
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Provides priority queue management via enqueue, dequeue, isEmpty and update methods, backed by a pairing heap so
+ * two queues can be merged with meld() in O(1) instead of re-inserting every task.
+ *
+ * @author Spencer Pattillo
+ */
+public class PairingPriorityQueue extends PairingHeap<Task> implements PriorityQueueInterface {
+
+    private final List<Node<Task>> raised = new ArrayList<>();
+
+    /**
+     * Inserts the given task into this priority queue. Use insert() instead to keep the task's node.
+     *
+     * @param task - Task to enqueue.
+     */
+    @Override
+    public void enqueue(Object task) {
+        if (task == null){
+            throw new NullPointerException();
+        }
+        insert((Task)task);
+    }
+
+    /**
+     * Removes and returns the task with the highest priority in this queue.
+     *
+     * @return the task with the highest priority in this queue.
+     */
+    @Override
+    public Task dequeue() {
+        return extractMax();
+    }
+
+    /**
+     * Inserts the given task, then removes and returns the task with the highest priority in this queue.
+     *
+     * @param task - Task to enqueue.
+     * @return the task with the highest priority in this queue, which may be the given task.
+     */
+    @Override
+    public Task enqueueThenDequeue(Object task) {
+        if (task == null){
+            throw new NullPointerException();
+        }
+        return pushPop((Task)task);
+    }
+
+    /**
+     * Returns true if this queue is empty.
+     *
+     * @return true if this queue is empty.
+     */
+    @Override
+    public boolean isEmpty() {
+        return getSize() == 0;
+    }
+
+    /**
+     * Increases the waiting times of all currently queued tasks. Each task that has passed timeToIncrementPriority
+     * will have its priority increased, up to the provided maximum, and is moved up with increaseKey() once every
+     * task has been visited.
+     *
+     * @param timeToIncrementPriority How long each task waits for before its priority is incremented.
+     * @param maxPriority The maximum priority any task can have.
+     */
+    @Override
+    public void update(int timeToIncrementPriority, int maxPriority) {
+        forEachNode(node -> {
+            Task task = node.getValue();
+            task.incrementWaitingTime();
+            if (task.updatePriority(timeToIncrementPriority, maxPriority)) raised.add(node);
+        });
+        for (Node<Task> node : raised) increaseKey(node);
+        raised.clear();
+    }
+}
@@ -0,0 +1,257 @@
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Runs MyLifeInStarDew for every combination of a grid of maxPriority, timeToIncrementLevel and
+ * taskGenerationProbability values, in parallel inside one JVM. Each combination is run for a number of seeds and
+ * summarized in one CSV row. Every worker thread keeps one MyLifeInStarDew and reset()s it between runs, so its
+ * priority queue and task generator are reused.
+ *
+ * Rows are appended and flushed as each combination finishes, so the CSV is also the checkpoint: running the same
+ * sweep against an existing file skips the combinations it already holds.
+ *
+ * Usage: java ParameterSweep --max-priority=GRID --time-to-increment=GRID --probability=GRID --days=N
+ * --runs=N --out=FILE [--first-seed=S] [--queue=...] [--threads=N]
+ * where a GRID is a list such as 1,2,5 or a range start:end[:step] such as 0.1:0.9:0.2.
+ */
+public class ParameterSweep {
+
+    /**
+     * The header row of the CSV.
+     */
+    public static final String HEADER = "maxPriority,timeToIncrement,probability,days,runs,firstSeed,"
+            + "moneyMean,moneyStddev,moneyP5,moneyP50,moneyP95,unluckyMean,unluckyStddev,tasksMean,tasksStddev,"
+            + "hoursMean,hoursStddev";
+
+    /**
+     * The number of leading CSV columns that identify a combination.
+     */
+    private static final int KEY_COLUMNS = 6;
+
+    private final int[] maxPriorities;
+    private final int[] timesToIncrement;
+    private final double[] probabilities;
+    private final int simulationDays;
+    private final int runs;
+    private final long firstSeed;
+    private final String queueType;
+    private final ThreadLocal<MyLifeInStarDew> simulators = ThreadLocal.withInitial(MyLifeInStarDew::new);
+
+    /**
+     * Creates a sweep over the given grid.
+     *
+     * @param maxPriorities The maxPriority values to try.
+     * @param timesToIncrement The timeToIncrementLevel values to try.
+     * @param probabilities The taskGenerationProbability values to try.
+     * @param simulationDays The number of days to simulate in each run.
+     * @param runs The number of seeds to run for each combination, at least 1.
+     * @param firstSeed The first of the seeds run for each combination.
+     * @param queueType One of MyLifeInStarDew.QUEUE_TYPES.
+     */
+    public ParameterSweep(int[] maxPriorities, int[] timesToIncrement, double[] probabilities, int simulationDays,
+                          int runs, long firstSeed, String queueType) {
+        if (runs < 1) throw new IllegalArgumentException("Illegal argument: runs must >= 1.");
+        if (!MyLifeInStarDew.QUEUE_TYPES.contains(queueType))
+            throw new IllegalArgumentException("Illegal argument: unknown queue type " + queueType + ".");
+        this.maxPriorities = maxPriorities.clone();
+        this.timesToIncrement = timesToIncrement.clone();
+        this.probabilities = probabilities.clone();
+        this.simulationDays = simulationDays;
+        this.runs = runs;
+        this.firstSeed = firstSeed;
+        this.queueType = queueType;
+    }
+
+    /**
+     * Runs every combination not yet in the given CSV file and appends a row for each one.
+     *
+     * @param csv The results file, which is created with a header if it does not exist.
+     * @param threads The number of worker threads, at least 1.
+     * @return the number of combinations run, not counting those skipped.
+     * @throws IOException if the file cannot be read or written.
+     */
+    public int run(Path csv, int threads) throws IOException {
+        if (threads < 1) throw new IllegalArgumentException("Illegal argument: threads must >= 1.");
+        Set<String> done = readCheckpoint(csv);
+        List<double[]> pending = new ArrayList<>();
+        for (int maxPriority : maxPriorities) {
+            for (int time : timesToIncrement) {
+                for (double probability : probabilities) {
+                    if (!done.contains(key(maxPriority, time, probability)))
+                        pending.add(new double[]{maxPriority, time, probability});
+                }
+            }
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try (BufferedWriter writer = Files.newBufferedWriter(csv, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            if (Files.size(csv) == 0) {
+                writer.write(HEADER);
+                writer.newLine();
+                writer.flush();
+            }
+            pool.submit(() -> pending.parallelStream().forEach(c -> {
+                String row = evaluate((int) c[0], (int) c[1], c[2]);
+                synchronized (writer) {
+                    try {
+                        writer.write(row);
+                        writer.newLine();
+                        writer.flush();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }
+            })).join();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } finally {
+            pool.shutdown();
+        }
+        return pending.size();
+    }
+
+    /**
+     * Runs one combination for every seed on this thread's simulator and formats its CSV row.
+     */
+    private String evaluate(int maxPriority, int time, double probability) {
+        MyLifeInStarDew simulator = simulators.get();
+        SimulationResult[] results = new SimulationResult[runs];
+        for (int i = 0; i < runs; i++) {
+            simulator.reset(maxPriority, time, simulationDays, probability, firstSeed + i, queueType);
+            results[i] = simulator.simulate(null);
+        }
+        SampleStatistics money = MonteCarloRunner.summarize(results, SimulationResult::getMoneyMade);
+        SampleStatistics unlucky = MonteCarloRunner.summarize(results, SimulationResult::getUnluckyCounter);
+        SampleStatistics tasks = MonteCarloRunner.summarize(results, SimulationResult::getTaskCounter);
+        SampleStatistics hours = MonteCarloRunner.summarize(results, SimulationResult::getHourTotal);
+        return key(maxPriority, time, probability) + String.format(Locale.ROOT,
+                ",%.4f,%.4f,%.4f,%.4f,%.4f,%.4f,%.4f,%.4f,%.4f,%.4f,%.4f",
+                money.getMean(), money.getStddev(), money.getPercentile(5), money.getPercentile(50),
+                money.getPercentile(95), unlucky.getMean(), unlucky.getStddev(), tasks.getMean(), tasks.getStddev(),
+                hours.getMean(), hours.getStddev());
+    }
+
+    /**
+     * Returns the leading CSV columns that identify a combination of this sweep.
+     */
+    private String key(int maxPriority, int time, double probability) {
+        return maxPriority + "," + time + "," + probability + "," + simulationDays + "," + runs + "," + firstSeed;
+    }
+
+    /**
+     * Returns the keys of the combinations already in the given CSV file. A last row cut short by an interrupted
+     * sweep is removed from the file so that new rows start on a fresh line.
+     */
+    private static Set<String> readCheckpoint(Path csv) throws IOException {
+        Set<String> done = new HashSet<>();
+        if (!Files.exists(csv)) return done;
+        try (RandomAccessFile file = new RandomAccessFile(csv.toFile(), "rw")) {
+            long end = file.length();
+            while (end > 0) {
+                file.seek(end - 1);
+                if (file.read() == '\n') break;
+                end--;
+            }
+            file.setLength(end);
+        }
+        for (String line : Files.readAllLines(csv, StandardCharsets.UTF_8)) {
+            if (line.isEmpty() || line.equals(HEADER)) continue;
+            String[] columns = line.split(",", KEY_COLUMNS + 1);
+            if (columns.length > KEY_COLUMNS) done.add(String.join(",", Arrays.copyOf(columns, KEY_COLUMNS)));
+        }
+        return done;
+    }
+
+    /**
+     * Parses a grid of ints: a comma separated list, or a range start:end[:step] with a default step of 1.
+     *
+     * @param grid The grid to parse.
+     * @return the values of the grid.
+     */
+    public static int[] parseIntGrid(String grid) {
+        double[] values = parseGrid(grid);
+        int[] ints = new int[values.length];
+        for (int i = 0; i < values.length; i++) ints[i] = (int) Math.round(values[i]);
+        return ints;
+    }
+
+    /**
+     * Parses a grid of doubles: a comma separated list, or a range start:end[:step] with a default step of 1.
+     *
+     * @param grid The grid to parse.
+     * @return the values of the grid.
+     */
+    public static double[] parseGrid(String grid) {
+        if (!grid.contains(":")) {
+            String[] parts = grid.split(",");
+            double[] values = new double[parts.length];
+            for (int i = 0; i < parts.length; i++) values[i] = Double.parseDouble(parts[i].trim());
+            return values;
+        }
+        String[] parts = grid.split(":");
+        double start = Double.parseDouble(parts[0]);
+        double end = Double.parseDouble(parts[1]);
+        double step = parts.length > 2 ? Double.parseDouble(parts[2]) : 1;
+        if (step <= 0 || end < start) throw new IllegalArgumentException("Illegal argument: bad range " + grid + ".");
+        int count = (int) Math.floor((end - start) / step + 1e-9) + 1;
+        double[] values = new double[count];
+        for (int i = 0; i < count; i++) values[i] = Math.round((start + i * step) * 1e9) / 1e9;
+        return values;
+    }
+
+    /**
+     * Main method for the sweep.
+     */
+    public static void main(String[] args) throws IOException {
+        String maxPriorities = null, times = null, probabilities = null, out = null;
+        String queueType = "heap";
+        int days = 0, runs = 1;
+        long firstSeed = 1L;
+        int threads = Runtime.getRuntime().availableProcessors();
+        for (String arg : args) {
+            int split = arg.indexOf('=');
+            String name = split < 0 ? arg : arg.substring(0, split);
+            String value = split < 0 ? "" : arg.substring(split + 1);
+            switch (name) {
+                case "--max-priority": maxPriorities = value; break;
+                case "--time-to-increment": times = value; break;
+                case "--probability": probabilities = value; break;
+                case "--days": days = Integer.parseInt(value); break;
+                case "--runs": runs = Integer.parseInt(value); break;
+                case "--first-seed": firstSeed = Long.parseLong(value); break;
+                case "--queue": queueType = value; break;
+                case "--threads": threads = Integer.parseInt(value); break;
+                case "--out": out = value; break;
+                default: throw new IllegalArgumentException("Illegal argument: unknown option " + arg + ".");
+            }
+        }
+        if (maxPriorities == null || times == null || probabilities == null || days < 1 || out == null) {
+            System.out.println("Usage: java ParameterSweep  --max-priority=GRID   --time-to-increment=GRID   " +
+                    "--probability=GRID   --days=N   --runs=N   --out=FILE   [--first-seed=S]   " +
+                    "[--queue=" + String.join("|", MyLifeInStarDew.QUEUE_TYPES) + "]   [--threads=N]");
+            System.exit(1);
+        }
+
+        ParameterSweep sweep = new ParameterSweep(parseIntGrid(maxPriorities), parseIntGrid(times),
+                parseGrid(probabilities), days, runs, firstSeed, queueType);
+        long start = System.nanoTime();
+        int count = sweep.run(Paths.get(out), threads);
+        System.out.format("Ran %d combinations in %.2f s, results in %s%n", count,
+                (System.nanoTime() - start) / 1e9, out);
+    }
+}
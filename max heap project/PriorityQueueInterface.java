@@ -1,3 +1,7 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
 /**
  * Provides priority queue management via enqueue, dequeue, isEmpty and update methods.
  * You are expected to implement this interface in your MyPriorirytQueue class, which should
@@ -23,6 +27,48 @@ public interface PriorityQueueInterface {
      */
     public Task dequeue();
 
+    /**
+     * Removes up to n front elements in priority order, passing each to the consumer.
+     * Queues with a faster batch path override this, as MyPriorityQueue does with MaxHeap extractMax(int, Consumer).
+     *
+     * @param n - maximum number of Tasks to remove
+     * @param consumer - receives each removed Task
+     * @return the number of Tasks removed
+     */
+    default int drainTo(int n, Consumer<? super Task> consumer) {
+        int count = 0;
+        while (count < n && !isEmpty()) {
+            consumer.accept(dequeue());
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Removes up to n front elements in priority order.
+     *
+     * @param n - maximum number of Tasks to remove
+     * @return the removed Tasks, highest priority first
+     */
+    default Task[] dequeueBatch(int n) {
+        List<Task> batch = new ArrayList<>();
+        drainTo(n, batch::add);
+        return batch.toArray(new Task[0]);
+    }
+
+    /**
+     * Adds a task and then removes the front element, as one operation.
+     * Queues backed by a heap override this with pushPop(), which skips the sift up and down of the task
+     * when it would come straight back out.
+     *
+     * @param task - Task to enqueue
+     * @return first element in the Task array, which may be task itself
+     */
+    default Task enqueueThenDequeue(Object task) {
+        enqueue(task);
+        return dequeue();
+    }
+
     /**
      * Boolean for if the Heap is empty.
      *
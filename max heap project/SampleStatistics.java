@@ -0,0 +1,81 @@
+import java.util.Arrays;
+
+/**
+ * Summary statistics of a sample of numbers: mean, sample standard deviation and percentiles.
+ */
+public class SampleStatistics {
+
+    private final double[] sorted;
+    private final double mean;
+    private final double stddev;
+
+    /**
+     * Computes the statistics of the given sample.
+     *
+     * @param values The sample, at least one value.
+     */
+    public SampleStatistics(double... values) {
+        if (values.length < 1) throw new IllegalArgumentException("Illegal argument: sample size must >= 1.");
+        sorted = values.clone();
+        Arrays.sort(sorted);
+
+        double sum = 0;
+        for (double v : sorted) sum += v;
+        mean = sum / sorted.length;
+
+        double squares = 0;
+        for (double v : sorted) squares += (v - mean) * (v - mean);
+        stddev = sorted.length > 1 ? Math.sqrt(squares / (sorted.length - 1)) : 0;
+    }
+
+    /**
+     * Returns the number of values in the sample.
+     *
+     * @return the sample size.
+     */
+    public int getCount() {
+        return sorted.length;
+    }
+
+    /**
+     * Returns the mean of the sample.
+     *
+     * @return the mean.
+     */
+    public double getMean() {
+        return mean;
+    }
+
+    /**
+     * Returns the sample standard deviation, or 0 for a single value.
+     *
+     * @return the standard deviation.
+     */
+    public double getStddev() {
+        return stddev;
+    }
+
+    /**
+     * Returns the given percentile of the sample, interpolating linearly between the closest ranks.
+     *
+     * @param p The percentile, between 0 and 100.
+     * @return the value at the percentile.
+     */
+    public double getPercentile(double p) {
+        if (p < 0 || p > 100) throw new IllegalArgumentException("Illegal argument: percentile must be in [0, 100].");
+        double rank = p / 100 * (sorted.length - 1);
+        int below = (int) rank;
+        if (below == sorted.length - 1) return sorted[below];
+        return sorted[below] + (rank - below) * (sorted[below + 1] - sorted[below]);
+    }
+
+    /**
+     * Returns a string representation of these statistics.
+     *
+     * @return a string representation of these statistics.
+     */
+    public String toString() {
+        return String.format("mean %.2f sd %.2f min %.0f p5 %.1f p50 %.1f p95 %.1f max %.0f", mean, stddev,
+                sorted[0], getPercentile(5), getPercentile(50), getPercentile(95), sorted[sorted.length - 1]);
+    }
+}
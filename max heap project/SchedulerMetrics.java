@@ -0,0 +1,251 @@
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Instrumentation for the scheduler. It keeps two kinds of measures.
+ *
+ * The heap and aging counters (heap operations, compares and element moves, priority bumps, and tasks that reach
+ * maxPriority) are counted for the whole JVM, and only when the system property stardew.metrics is true at startup.
+ * Each instance reports them from the time it was created. ENABLED is a static final constant, so when the property
+ * is off the JIT removes the counting code from the heaps and the queues altogether.
+ *
+ * Every heap that a queue of MyLifeInStarDew.QUEUE_TYPES is built on is counted: MaxHeap, which also backs the
+ * buckets of BucketPriorityQueue and the classes of LazyAgingPriorityQueue, IndexedMaxHeap, KeyedMaxHeap,
+ * ColumnarPriorityQueue and PairingHeap. A pairing heap link counts as one compare and one move.
+ *
+ * The simulation measures (queue depth and hours from enqueue to dequeue for each task type) belong to one
+ * SchedulerMetrics instance, which MyLifeInStarDew feeds when it was given one and skips with a null check
+ * otherwise. They are written by the simulating thread only; snapshot() and the MXBean getters may be called from
+ * any thread and see the values as of a recent hour.
+ */
+public class SchedulerMetrics implements SchedulerMetricsMXBean {
+
+    /**
+     * True if the heap and aging counters are collected, from the system property stardew.metrics.
+     */
+    public static final boolean ENABLED = Boolean.getBoolean("stardew.metrics");
+
+    /**
+     * The JMX name the metrics of a simulation are registered under.
+     */
+    public static final String OBJECT_NAME = "stardew:type=SchedulerMetrics";
+
+    /**
+     * The number of buckets of each wait histogram. Bucket 0 counts waits of 0 hours and bucket k > 0 counts waits
+     * of 2^(k-1) to 2^k - 1 hours.
+     */
+    public static final int WAIT_BUCKETS = 32;
+
+    private static final LongAdder heapOperations = new LongAdder();
+    private static final LongAdder compares = new LongAdder();
+    private static final LongAdder swaps = new LongAdder();
+    private static final LongAdder bumps = new LongAdder();
+    private static final LongAdder starved = new LongAdder();
+
+    private static final TaskInterface.TaskType[] TYPES = TaskInterface.TaskType.values();
+
+    private volatile long hours;
+    private long depth;
+    private long maxDepth;
+    private long depthSum;
+    private final long[][] waitHistograms = new long[TYPES.length][WAIT_BUCKETS];
+    private final long[] waitSums = new long[TYPES.length];
+    private final long[] waitCounts = new long[TYPES.length];
+    private final long operationsAtStart = heapOperations.sum();
+    private final long comparesAtStart = compares.sum();
+    private final long swapsAtStart = swaps.sum();
+    private final long bumpsAtStart = bumps.sum();
+    private final long starvedAtStart = starved.sum();
+
+    /**
+     * Counts one insert, extract or replace operation on a heap.
+     */
+    static void countOperation() {
+        heapOperations.increment();
+    }
+
+    /**
+     * Counts the compares and element moves of one sift through a heap.
+     *
+     * @param compareCount The number of compareTo() calls.
+     * @param moveCount The number of elements moved to another slot.
+     */
+    static void countSift(int compareCount, int moveCount) {
+        compares.add(compareCount);
+        if (moveCount > 0) swaps.add(moveCount);
+    }
+
+    /**
+     * Counts priority bumps made by an update().
+     *
+     * @param count The number of bumps.
+     * @param reachedMax How many of them brought a task to maxPriority.
+     */
+    static void countBumps(int count, int reachedMax) {
+        bumps.add(count);
+        if (reachedMax > 0) starved.add(reachedMax);
+    }
+
+    /**
+     * Records that the given task was put in the queue at the given hour.
+     *
+     * @param task The task.
+     * @param hour The simulation hour.
+     */
+    public void enqueued(Task task, int hour) {
+        task.setEnqueuedHour(hour);
+        depth++;
+    }
+
+    /**
+     * Records that the given task was taken out of the queue at the given hour.
+     *
+     * @param task The task, which must have been recorded by enqueued().
+     * @param hour The simulation hour.
+     */
+    public void dequeued(Task task, int hour) {
+        recordWait(task.getTaskType().ordinal(), hour - task.getEnqueuedHour());
+        depth--;
+    }
+
+    /**
+     * Records the queue depth at the end of a simulated hour.
+     */
+    public void hourEnded() {
+        depthSum += depth;
+        if (depth > maxDepth) maxDepth = depth;
+        hours++;
+    }
+
+    /**
+     * Adds a wait of the given length to the histogram of the given type.
+     */
+    private void recordWait(int type, int wait) {
+        int bucket = wait <= 0 ? 0 : Math.min(WAIT_BUCKETS - 1, 32 - Integer.numberOfLeadingZeros(wait));
+        waitHistograms[type][bucket]++;
+        waitSums[type] += wait;
+        waitCounts[type]++;
+    }
+
+    /**
+     * Returns a copy of the current values.
+     *
+     * @return a snapshot of these metrics.
+     */
+    public MetricsSnapshot snapshot() {
+        long h = hours;
+        long[][] histograms = new long[TYPES.length][];
+        for (int t = 0; t < TYPES.length; t++) histograms[t] = waitHistograms[t].clone();
+        return new MetricsSnapshot(h, depth, maxDepth, h == 0 ? 0 : (double)depthSum / h,
+                heapOperations.sum() - operationsAtStart, compares.sum() - comparesAtStart, swaps.sum() - swapsAtStart,
+                bumps.sum() - bumpsAtStart, starved.sum() - starvedAtStart,
+                waitSums.clone(), waitCounts.clone(), histograms);
+    }
+
+    /**
+     * Passes a snapshot to the given consumer at a fixed rate on a daemon thread until the returned executor is
+     * shut down.
+     *
+     * @param period The time between snapshots.
+     * @param unit The unit of period.
+     * @param consumer Receives each snapshot.
+     * @return the executor taking the snapshots.
+     */
+    public ScheduledExecutorService startSnapshots(long period, TimeUnit unit, Consumer<MetricsSnapshot> consumer) {
+        ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "stardew-metrics");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleAtFixedRate(() -> consumer.accept(snapshot()), period, period, unit);
+        return executor;
+    }
+
+    /**
+     * Registers these metrics with the platform MBean server under OBJECT_NAME, replacing any metrics registered
+     * before.
+     *
+     * @throws JMException if the registration fails.
+     */
+    public void register() throws JMException {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = new ObjectName(OBJECT_NAME);
+        if (server.isRegistered(name)) server.unregisterMBean(name);
+        server.registerMBean(this, name);
+    }
+
+    @Override
+    public long getHours() {
+        return hours;
+    }
+
+    @Override
+    public long getQueueDepth() {
+        return depth;
+    }
+
+    @Override
+    public long getMaxQueueDepth() {
+        return maxDepth;
+    }
+
+    @Override
+    public double getMeanQueueDepth() {
+        return snapshot().getMeanDepth();
+    }
+
+    @Override
+    public long getHeapOperations() {
+        return heapOperations.sum() - operationsAtStart;
+    }
+
+    @Override
+    public double getComparesPerOperation() {
+        return snapshot().getComparesPerOperation();
+    }
+
+    @Override
+    public double getSwapsPerOperation() {
+        return snapshot().getSwapsPerOperation();
+    }
+
+    @Override
+    public long getPriorityBumps() {
+        return bumps.sum() - bumpsAtStart;
+    }
+
+    @Override
+    public double getBumpsPerHour() {
+        return snapshot().getBumpsPerHour();
+    }
+
+    @Override
+    public long getStarvedTasks() {
+        return starved.sum() - starvedAtStart;
+    }
+
+    @Override
+    public Map<String, Double> getMeanWaitHours() {
+        MetricsSnapshot snapshot = snapshot();
+        Map<String, Double> means = new LinkedHashMap<>();
+        for (TaskInterface.TaskType type : TYPES) means.put(type.name(), snapshot.getMeanWait(type));
+        return means;
+    }
+
+    @Override
+    public Map<String, long[]> getWaitHistograms() {
+        MetricsSnapshot snapshot = snapshot();
+        Map<String, long[]> histograms = new LinkedHashMap<>();
+        for (TaskInterface.TaskType type : TYPES) histograms.put(type.name(), snapshot.getWaitHistogram(type));
+        return histograms;
+    }
+}
@@ -0,0 +1,92 @@
+import java.util.Map;
+
+/**
+ * The JMX view of SchedulerMetrics.
+ */
+public interface SchedulerMetricsMXBean {
+
+    /**
+     * Returns the number of simulated hours recorded.
+     *
+     * @return the number of hours.
+     */
+    long getHours();
+
+    /**
+     * Returns the number of tasks in the queue.
+     *
+     * @return the queue depth.
+     */
+    long getQueueDepth();
+
+    /**
+     * Returns the largest queue depth at the end of any hour.
+     *
+     * @return the largest queue depth.
+     */
+    long getMaxQueueDepth();
+
+    /**
+     * Returns the mean queue depth at the end of an hour.
+     *
+     * @return the mean queue depth.
+     */
+    double getMeanQueueDepth();
+
+    /**
+     * Returns the number of insert, extract and replace operations on any heap in this JVM since these metrics
+     * were created.
+     *
+     * @return the number of heap operations.
+     */
+    long getHeapOperations();
+
+    /**
+     * Returns the mean number of element compares per heap operation.
+     *
+     * @return the compares per operation.
+     */
+    double getComparesPerOperation();
+
+    /**
+     * Returns the mean number of element moves per heap operation.
+     *
+     * @return the moves per operation.
+     */
+    double getSwapsPerOperation();
+
+    /**
+     * Returns the number of priority bumps made by update() in this JVM since these metrics were created.
+     *
+     * @return the number of bumps.
+     */
+    long getPriorityBumps();
+
+    /**
+     * Returns the mean number of priority bumps per simulated hour.
+     *
+     * @return the bumps per hour.
+     */
+    double getBumpsPerHour();
+
+    /**
+     * Returns how many times a task has reached maxPriority in this JVM since these metrics were created.
+     *
+     * @return the number of starved tasks.
+     */
+    long getStarvedTasks();
+
+    /**
+     * Returns the mean hours from enqueue to dequeue, by task type name.
+     *
+     * @return the mean waits.
+     */
+    Map<String, Double> getMeanWaitHours();
+
+    /**
+     * Returns the histogram of hours from enqueue to dequeue, by task type name. See SchedulerMetrics.WAIT_BUCKETS.
+     *
+     * @return the wait histograms.
+     */
+    Map<String, long[]> getWaitHistograms();
+}
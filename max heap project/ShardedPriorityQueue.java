@@ -0,0 +1,218 @@
+import java.util.NoSuchElementException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+
+/**
+ * Thread-safe priority queue built from several MyPriorityQueue shards, each behind its own lock (a "multi-queue").
+ *
+ * enqueue() puts a task in a random shard, trying another one if that shard is busy, so producers rarely wait on
+ * each other and throughput grows with the number of shards. dequeue() looks at the tops of two random shards and
+ * takes the better one. The price is that ordering is relaxed: the task returned is near the top of the queue but
+ * not always the single highest priority task. With s shards the expected rank of the returned task is O(s). A
+ * queue with one shard is strict but serializes every call on one lock; pick about twice the number of threads
+ * for a good balance. Within each shard, tasks still leave in Task.compareTo() order.
+ *
+ * update() ages each shard under its own lock, in parallel once the queue is large enough.
+ *
+ * Tasks are mutable and update() changes their priorities under the shard lock, so dequeue() never reads a Task to
+ * pick a shard. Each shard instead publishes an immutable snapshot of its top task, the KeyedPriorityQueue.taskKey()
+ * of it taken under the lock, and shards are compared by those keys alone. A snapshot may be stale by the time the
+ * shard is locked, which only makes the choice of shard less exact; the task taken is always the shard's real top.
+ *
+ * @author Spencer Pattillo
+ */
+public class ShardedPriorityQueue implements PriorityQueueInterface {
+
+    private static final int PARALLEL_UPDATE_THRESHOLD = 1 << 14;
+    private static final long EMPTY = Long.MIN_VALUE; //topKey of an empty shard, below every task key
+
+    private final Shard[] shards;
+    private final LongAdder size = new LongAdder();
+
+    /**
+     * Creates a new priority queue with the given number of shards.
+     *
+     * @param shardCount The number of independently locked shards, at least 1.
+     */
+    public ShardedPriorityQueue(int shardCount) {
+        if (shardCount < 1) throw new IllegalArgumentException("Illegal argument: shardCount must >= 1.");
+        shards = new Shard[shardCount];
+        for (int i = 0; i < shardCount; i++) shards[i] = new Shard();
+    }
+
+    /**
+     * Creates a new priority queue with two shards per available processor.
+     */
+    public ShardedPriorityQueue() {
+        this(2 * Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Inserts the given task into a random shard of this queue.
+     *
+     * @param task - Task to enqueue.
+     */
+    @Override
+    public void enqueue(Object task) {
+        if (task == null){
+            throw new NullPointerException();
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Shard shard = shards[random.nextInt(shards.length)];
+        int attempts = 1;
+        while (!shard.lock.tryLock()) {
+            shard = shards[random.nextInt(shards.length)];
+            if (++attempts > shards.length) {
+                shard.lock.lock();
+                break;
+            }
+        }
+        try {
+            shard.queue.enqueue(task);
+            shard.refreshTop();
+            size.increment();
+        } finally {
+            shard.lock.unlock();
+        }
+    }
+
+    /**
+     * Removes and returns a task with one of the highest priorities in this queue.
+     *
+     * @return a task with one of the highest priorities in this queue.
+     */
+    @Override
+    public Task dequeue() {
+        Task task = poll();
+        if (task == null){
+            throw new NoSuchElementException();
+        }
+        return task;
+    }
+
+    /**
+     * Removes and returns a task with one of the highest priorities in this queue, or null if it is empty.
+     *
+     * @return a task with one of the highest priorities in this queue, or null.
+     */
+    public Task poll() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int attempt = 0; attempt < shards.length; attempt++) {
+            Shard first = shards[random.nextInt(shards.length)];
+            Shard second = shards[random.nextInt(shards.length)];
+            Shard best = second.topKey > first.topKey ? second : first;
+            if (best.topKey == EMPTY) continue;
+
+            if (best.lock.tryLock()) {
+                try {
+                    Task task = best.take();
+                    if (task != null) return task;
+                } finally {
+                    best.lock.unlock();
+                }
+            }
+        }
+        for (Shard shard : shards) {
+            if (shard.topKey == EMPTY) continue;
+            shard.lock.lock();
+            try {
+                Task task = shard.take();
+                if (task != null) return task;
+            } finally {
+                shard.lock.unlock();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Removes up to n tasks with high priorities, passing each to the consumer.
+     *
+     * @param n The maximum number of tasks to remove.
+     * @param consumer Receives each removed task.
+     * @return the number of tasks removed.
+     */
+    @Override
+    public int drainTo(int n, Consumer<? super Task> consumer) {
+        int count = 0;
+        Task task;
+        while (count < n && (task = poll()) != null) {
+            consumer.accept(task);
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Returns true if this queue appears empty. Tasks enqueued or dequeued concurrently may not be reflected.
+     *
+     * @return true if this queue is empty.
+     */
+    @Override
+    public boolean isEmpty() {
+        return size.sum() <= 0;
+    }
+
+    /**
+     * Increases the waiting times of all currently queued tasks, one shard at a time under that shard's lock. Each
+     * task that has passed timeToIncrementPriority will have its priority increased, up to the provided maximum.
+     *
+     * @param timeToIncrementPriority How long each task waits for before its priority is incremented.
+     * @param maxPriority The maximum priority any task can have.
+     */
+    @Override
+    public void update(int timeToIncrementPriority, int maxPriority) {
+        IntStream indices = IntStream.range(0, shards.length);
+        if (size.sum() >= PARALLEL_UPDATE_THRESHOLD) indices = indices.parallel();
+        indices.forEach(i -> {
+            Shard shard = shards[i];
+            shard.lock.lock();
+            try {
+                shard.queue.update(timeToIncrementPriority, maxPriority);
+                shard.refreshTop();
+            } finally {
+                shard.lock.unlock();
+            }
+        });
+    }
+
+    /**
+     * Returns the number of tasks in this queue. Tasks enqueued or dequeued concurrently may not be reflected.
+     *
+     * @return the number of tasks in this queue.
+     */
+    public int getSize() {
+        return (int)Math.max(0, size.sum());
+    }
+
+    /**
+     * One lock-protected shard. topKey caches the key of the shard's highest task so that dequeue can compare
+     * shards without locking them or reading tasks that update() may be changing.
+     */
+    private final class Shard {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final MyPriorityQueue queue = new MyPriorityQueue();
+        private volatile long topKey = EMPTY;
+
+        /**
+         * Removes this shard's highest task, or returns null if it is empty. Must hold lock.
+         */
+        private Task take() {
+            if (queue.isEmpty()) return null;
+            Task task = queue.dequeue();
+            refreshTop();
+            size.decrement();
+            return task;
+        }
+
+        /**
+         * Republishes the key of the highest task after the shard changed. Must hold lock.
+         */
+        private void refreshTop() {
+            topKey = queue.isEmpty() ? EMPTY : KeyedPriorityQueue.taskKey((Task)queue.get(1));
+        }
+    }
+}
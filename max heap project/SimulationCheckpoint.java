@@ -0,0 +1,315 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * The full state of a MyLifeInStarDew run between two days: its settings, the totals so far, the seed the next day
+ * starts from, the task generator, the task finished last and every queued task with its priority and waiting time.
+ * A run resumed from a checkpoint continues exactly as the run that wrote it would have.
+ *
+ * The file is big-endian binary: magic "SDCP" (int), version (short), the settings, the progress, the task
+ * generator as written by TaskGenerator.writeState(), the finished task (a boolean, then the task if true), and the
+ * number of queued tasks followed by the tasks. A task is its hourCreated (int), TaskType ordinal (byte), detail id
+ * (byte, followed by the description if it is -1), priority, waiting time and enqueued hour (ints).
+ */
+public class SimulationCheckpoint {
+
+    public static final int MAGIC = 0x53444350; //"SDCP"
+    public static final short VERSION = 2;
+
+    private static final TaskInterface.TaskType[] TYPES = TaskInterface.TaskType.values();
+
+    private final int maxPriority;
+    private final int timeToIncrementLevel;
+    private final int simulationDays;
+    private final double taskGenerationProbability;
+    private final String queueType;
+    private final boolean seeded;
+    private final long seed;
+    private final int completedDays;
+    private final int hourTotal;
+    private final int moneyMade;
+    private final int badLuck;
+    private final int unluckyCounter;
+    private final int taskCounter;
+    private final TaskGenerator taskGenerator;
+    private final Task finishedTask;
+    private final Task[] queuedTasks;
+
+    /**
+     * Creates a checkpoint. The task generator and the tasks are not copied, so the checkpoint must be written
+     * before the run goes on.
+     */
+    SimulationCheckpoint(int maxPriority, int timeToIncrementLevel, int simulationDays,
+                         double taskGenerationProbability, String queueType, boolean seeded,
+                         long seed, int completedDays, int hourTotal, int moneyMade, int badLuck, int unluckyCounter,
+                         int taskCounter, TaskGenerator taskGenerator, Task finishedTask, Task[] queuedTasks) {
+        this.maxPriority = maxPriority;
+        this.timeToIncrementLevel = timeToIncrementLevel;
+        this.simulationDays = simulationDays;
+        this.taskGenerationProbability = taskGenerationProbability;
+        this.queueType = queueType;
+        this.seeded = seeded;
+        this.seed = seed;
+        this.completedDays = completedDays;
+        this.hourTotal = hourTotal;
+        this.moneyMade = moneyMade;
+        this.badLuck = badLuck;
+        this.unluckyCounter = unluckyCounter;
+        this.taskCounter = taskCounter;
+        this.taskGenerator = taskGenerator;
+        this.finishedTask = finishedTask;
+        this.queuedTasks = queuedTasks;
+    }
+
+    /**
+     * Writes this checkpoint to the given file. It is written to a temporary file next to it first and then moved
+     * over it, so a crash while writing leaves the previous checkpoint intact.
+     *
+     * @param file The checkpoint file.
+     * @throws IOException if the file cannot be written.
+     */
+    public void write(Path file) throws IOException {
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp),
+                1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeShort(VERSION);
+            out.writeInt(maxPriority);
+            out.writeInt(timeToIncrementLevel);
+            out.writeInt(simulationDays);
+            out.writeDouble(taskGenerationProbability);
+            out.writeByte(MyLifeInStarDew.QUEUE_TYPES.indexOf(queueType));
+            out.writeBoolean(seeded);
+            out.writeLong(seed);
+            out.writeInt(completedDays);
+            out.writeInt(hourTotal);
+            out.writeInt(moneyMade);
+            out.writeInt(badLuck);
+            out.writeInt(unluckyCounter);
+            out.writeInt(taskCounter);
+            taskGenerator.writeState(out);
+            out.writeBoolean(finishedTask != null);
+            if (finishedTask != null) writeTask(out, finishedTask);
+            out.writeInt(queuedTasks.length);
+            for (Task task : queuedTasks) writeTask(out, task);
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Reads a checkpoint from the given file.
+     *
+     * @param file The checkpoint file.
+     * @return the checkpoint.
+     * @throws IOException if the file cannot be read or is not a checkpoint.
+     */
+    public static SimulationCheckpoint read(Path file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 1 << 16))) {
+            if (in.readInt() != MAGIC) throw new IOException(file + " is not a simulation checkpoint.");
+            short version = in.readShort();
+            if (version != VERSION) throw new IOException(file + " has unsupported checkpoint version " + version + ".");
+            int maxPriority = in.readInt();
+            int timeToIncrementLevel = in.readInt();
+            int simulationDays = in.readInt();
+            double taskGenerationProbability = in.readDouble();
+            int queueIndex = in.readByte();
+            if (queueIndex < 0 || queueIndex >= MyLifeInStarDew.QUEUE_TYPES.size())
+                throw new IOException(file + " has unknown queue type " + queueIndex + ".");
+            boolean seeded = in.readBoolean();
+            long seed = in.readLong();
+            int completedDays = in.readInt();
+            int hourTotal = in.readInt();
+            int moneyMade = in.readInt();
+            int badLuck = in.readInt();
+            int unluckyCounter = in.readInt();
+            int taskCounter = in.readInt();
+            TaskGenerator taskGenerator = TaskGenerator.readState(in);
+            Task finishedTask = in.readBoolean() ? readTask(in) : null;
+            Task[] queuedTasks = new Task[in.readInt()];
+            for (int i = 0; i < queuedTasks.length; i++) queuedTasks[i] = readTask(in);
+            return new SimulationCheckpoint(maxPriority, timeToIncrementLevel, simulationDays,
+                    taskGenerationProbability, MyLifeInStarDew.QUEUE_TYPES.get(queueIndex), seeded, seed,
+                    completedDays, hourTotal, moneyMade, badLuck, unluckyCounter, taskCounter, taskGenerator,
+                    finishedTask, queuedTasks);
+        }
+    }
+
+    /**
+     * Writes one task.
+     */
+    private static void writeTask(DataOutput out, Task task) throws IOException {
+        out.writeInt(task.getHourCreated());
+        out.writeByte(task.getTaskType().ordinal());
+        out.writeByte(task.getDetailId());
+        if (task.getDetailId() < 0) out.writeUTF(task.getTaskDescription());
+        out.writeInt(task.getPriority());
+        out.writeInt(task.getWaitingTime());
+        out.writeInt(task.getEnqueuedHour());
+    }
+
+    /**
+     * Reads one task.
+     */
+    private static Task readTask(DataInput in) throws IOException {
+        int hourCreated = in.readInt();
+        TaskInterface.TaskType type = TYPES[in.readByte()];
+        int detailId = in.readByte();
+        Task task = detailId < 0 ? new Task(hourCreated, type, in.readUTF()) : new Task(hourCreated, type, detailId);
+        task.setPriority(in.readInt());
+        task.setWaitingTime(in.readInt());
+        task.setEnqueuedHour(in.readInt());
+        return task;
+    }
+
+    /**
+     * Returns the maximum priority of the run.
+     *
+     * @return the maximum priority.
+     */
+    public int getMaxPriority() {
+        return maxPriority;
+    }
+
+    /**
+     * Returns the time to increment a priority level of the run.
+     *
+     * @return the time to increment level.
+     */
+    public int getTimeToIncrementLevel() {
+        return timeToIncrementLevel;
+    }
+
+    /**
+     * Returns the number of days of the whole run.
+     *
+     * @return the number of days.
+     */
+    public int getSimulationDays() {
+        return simulationDays;
+    }
+
+    /**
+     * Returns the task generation probability of the run.
+     *
+     * @return the task generation probability.
+     */
+    public double getTaskGenerationProbability() {
+        return taskGenerationProbability;
+    }
+
+    /**
+     * Returns the queue type of the run.
+     *
+     * @return one of MyLifeInStarDew.QUEUE_TYPES.
+     */
+    public String getQueueType() {
+        return queueType;
+    }
+
+    /**
+     * Returns true if the run is seeded.
+     *
+     * @return true if the run is seeded.
+     */
+    public boolean isSeeded() {
+        return seeded;
+    }
+
+    /**
+     * Returns the seed the day after the checkpoint is derived from.
+     *
+     * @return the seed.
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Returns the number of days simulated before the checkpoint.
+     *
+     * @return the number of completed days.
+     */
+    public int getCompletedDays() {
+        return completedDays;
+    }
+
+    /**
+     * Returns the number of hours simulated before the checkpoint.
+     *
+     * @return the number of hours.
+     */
+    public int getHourTotal() {
+        return hourTotal;
+    }
+
+    /**
+     * Returns the money made before the checkpoint.
+     *
+     * @return the money made.
+     */
+    public int getMoneyMade() {
+        return moneyMade;
+    }
+
+    /**
+     * Returns the bad luck of the last hour worked before the checkpoint.
+     *
+     * @return 0, 1 or 2 as TaskGenerator.getUnlucky() returns.
+     */
+    public int getBadLuck() {
+        return badLuck;
+    }
+
+    /**
+     * Returns the number of deaths and pass-outs before the checkpoint.
+     *
+     * @return the number of deaths and pass-outs.
+     */
+    public int getUnluckyCounter() {
+        return unluckyCounter;
+    }
+
+    /**
+     * Returns the number of tasks generated before the checkpoint.
+     *
+     * @return the number of tasks.
+     */
+    public int getTaskCounter() {
+        return taskCounter;
+    }
+
+    /**
+     * Returns the task generator as it was at the checkpoint.
+     *
+     * @return the task generator.
+     */
+    public TaskGenerator getTaskGenerator() {
+        return taskGenerator;
+    }
+
+    /**
+     * Returns the task worked on last, which is outside the queue until the next hour re-enqueues it, or null.
+     *
+     * @return the finished task, or null.
+     */
+    public Task getFinishedTask() {
+        return finishedTask;
+    }
+
+    /**
+     * Returns the tasks in the queue, with the priorities and waiting times they had at the checkpoint.
+     *
+     * @return the queued tasks.
+     */
+    public Task[] getQueuedTasks() {
+        return queuedTasks;
+    }
+}
@@ -0,0 +1,70 @@
+/**
+ * The totals of one finished run of MyLifeInStarDew.
+ */
+public class SimulationResult {
+
+    private final int moneyMade;
+    private final int unluckyCounter;
+    private final int taskCounter;
+    private final int hourTotal;
+
+    /**
+     * Creates a new result.
+     *
+     * @param moneyMade The total money made.
+     * @param unluckyCounter The number of deaths and pass-outs.
+     * @param taskCounter The number of tasks generated.
+     * @param hourTotal The number of simulated hours.
+     */
+    public SimulationResult(int moneyMade, int unluckyCounter, int taskCounter, int hourTotal) {
+        this.moneyMade = moneyMade;
+        this.unluckyCounter = unluckyCounter;
+        this.taskCounter = taskCounter;
+        this.hourTotal = hourTotal;
+    }
+
+    /**
+     * Returns the total money made.
+     *
+     * @return the total money made.
+     */
+    public int getMoneyMade() {
+        return moneyMade;
+    }
+
+    /**
+     * Returns the number of deaths and pass-outs.
+     *
+     * @return the number of deaths and pass-outs.
+     */
+    public int getUnluckyCounter() {
+        return unluckyCounter;
+    }
+
+    /**
+     * Returns the number of tasks generated.
+     *
+     * @return the number of tasks generated.
+     */
+    public int getTaskCounter() {
+        return taskCounter;
+    }
+
+    /**
+     * Returns the number of simulated hours.
+     *
+     * @return the number of simulated hours.
+     */
+    public int getHourTotal() {
+        return hourTotal;
+    }
+
+    /**
+     * Returns a string representation of this result.
+     *
+     * @return a string representation of this result.
+     */
+    public String toString() {
+        return "money=" + moneyMade + " unlucky=" + unluckyCounter + " tasks=" + taskCounter + " hours=" + hourTotal;
+    }
+}
@@ -6,11 +6,27 @@
  */
 public class Task implements TaskInterface, Comparable<Task>{
 
+    /**
+     * The details a task of each type can have, indexed by TaskType ordinal and then by detail id.
+     */
+    private static final String[][] DETAILS = {
+            {"for Copper", "for Iron", "for Gold", "for Diamonds", "for Rocks"},                   //MINING
+            {"in the Ocean", "in the River", "in the Pond", "in the Lake", "in the Hatcheries"},   //FISHING
+            {"of Harvesting Wheat", "of Clearing Rocks", "of Watering Plants", "of Wood Chopping",
+                    "of Beautification"},                                                         //FARM_MAINTENANCE
+            {"the Goats", "the Chickens", "the Cows", "the Pigs", "the Ducks"},                   //FEEDING
+            {"for Mushrooms", "for Berries", "for Roots", "for Flowers", "for Herbs"},            //FORAGING
+            {"with Mayor Lewis", "with Store Owner Pierre", "with Carpenter Robin", "with Blacksmith Clint",
+                    "with the Wizard"},                                                           //SOCIALIZING
+    };
+
     private int priority;
     private TaskType type;
     private int hourCreated;
     private String taskDescription;
+    private int detailId = -1;
     private int waitingTime;
+    private int enqueuedHour;
 
 
     /**
@@ -26,6 +42,43 @@ public class Task implements TaskInterface, Comparable<Task>{
         this.taskDescription = taskDescription;
     }
 
+    /**
+     * Creates a new task whose description is one of the shared details of its type, so creating it allocates
+     * nothing but the task itself.
+     *
+     * @param hourCreated The hour this task was created.
+     * @param type A TaskType enum.
+     * @param detailId The index of this task's detail, from 0 to getDetailCount(type) - 1.
+     */
+    public Task(int hourCreated, TaskType type, int detailId){
+        if (detailId < 0 || detailId >= getDetailCount(type))
+            throw new IllegalArgumentException("Illegal argument: detailId must be in [0, " + getDetailCount(type) + ").");
+        this.hourCreated = hourCreated;
+        this.type = type;
+        this.detailId = detailId;
+    }
+
+    /**
+     * Returns the number of details a task of the given type can have.
+     *
+     * @param type A TaskType enum.
+     * @return the number of details of the type.
+     */
+    public static int getDetailCount(TaskType type) {
+        return DETAILS[type.ordinal()].length;
+    }
+
+    /**
+     * Returns the shared description of the given detail of the given type.
+     *
+     * @param type A TaskType enum.
+     * @param detailId The index of the detail.
+     * @return the description of the detail.
+     */
+    public static String getDetail(TaskType type, int detailId) {
+        return DETAILS[type.ordinal()][detailId];
+    }
+
     /**
      * Returns the current priority of this task.
      *
@@ -42,7 +95,25 @@ public class Task implements TaskInterface, Comparable<Task>{
      * @return the string description of this task.
      */
     public String getTaskDescription(){
-        return taskDescription;
+        return detailId < 0 ? taskDescription : DETAILS[type.ordinal()][detailId];
+    }
+
+    /**
+     * Returns the index of this task's detail, or -1 if this task was created with its own description.
+     *
+     * @return the detail id of this task.
+     */
+    public int getDetailId(){
+        return detailId;
+    }
+
+    /**
+     * Returns the hour this task was created.
+     *
+     * @return the hour this task was created.
+     */
+    public int getHourCreated(){
+        return hourCreated;
     }
 
     /**
@@ -84,6 +155,15 @@ public class Task implements TaskInterface, Comparable<Task>{
 
     }
 
+    /**
+     * Sets this task's waiting time to the given value.
+     *
+     * @param waitingTime The value to set waiting time to.
+     */
+    public void setWaitingTime(int waitingTime) {
+        this.waitingTime = waitingTime;
+    }
+
     /**
      * Returns this task's waiting time.
      *
@@ -94,6 +174,24 @@ public class Task implements TaskInterface, Comparable<Task>{
         return waitingTime;
     }
 
+    /**
+     * Returns the hour this task was last enqueued at, as recorded by SchedulerMetrics.
+     *
+     * @return the hour this task was last enqueued at.
+     */
+    public int getEnqueuedHour() {
+        return enqueuedHour;
+    }
+
+    /**
+     * Sets the hour this task was last enqueued at.
+     *
+     * @param enqueuedHour The hour this task was enqueued at.
+     */
+    public void setEnqueuedHour(int enqueuedHour) {
+        this.enqueuedHour = enqueuedHour;
+    }
+
     /**
      * Increments this task's priority if its waiting time exceeds the given time and its priority is lower than the
      * given max. Also resets the waiting time if required.
@@ -110,6 +208,7 @@ public class Task implements TaskInterface, Comparable<Task>{
             if (priority < maxPriority)
             {
                 priority++;
+                if (SchedulerMetrics.ENABLED) SchedulerMetrics.countBumps(1, priority == maxPriority ? 1 : 0);
                 return true;
             }
         }
@@ -136,6 +235,6 @@ public class Task implements TaskInterface, Comparable<Task>{
      * @return A string representation of the task.
      */
     public String toString(){
-        return type.toString() + " " + taskDescription.toString() + " at Hour: " + hourCreated +":00";
+        return type.toString() + " " + getTaskDescription() + " at Hour: " + hourCreated +":00";
     }
 }
@@ -0,0 +1,203 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * Runs queued tasks on a pool of worker threads. Each worker blocks in BlockingPriorityQueue.take() while there is
+ * nothing to do, so idle workers sleep instead of polling isEmpty().
+ *
+ * Workers are virtual threads when the running JVM supports them (Java 21+), and daemon platform threads otherwise.
+ * shutdown() lets the workers finish every queued task before they exit; shutdownNow() interrupts them and hands
+ * back whatever was still queued.
+ *
+ * A RuntimeException thrown by the handler does not stop its worker. It is counted, kept as the last failure, and
+ * passed to the error handler if one was given.
+ *
+ * @author Spencer Pattillo
+ */
+public class TaskDispatcher {
+
+    private final BlockingPriorityQueue queue;
+    private final Consumer<Task> handler;
+    private final BiConsumer<Task, RuntimeException> errorHandler; //null when failures are only counted
+    private final Thread[] workers;
+    private final AtomicLong completed = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicReference<RuntimeException> lastFailure = new AtomicReference<>();
+    private boolean started;
+
+    /**
+     * Creates a new dispatcher. Call start() to launch the workers.
+     *
+     * @param queue The queue to take tasks from.
+     * @param workerCount The number of worker threads, at least 1.
+     * @param handler Runs a single task. Exceptions it throws are counted and do not stop the worker.
+     * @param errorHandler Receives each task whose handler threw and the exception, on the worker thread, or null.
+     * @param threadFactory Creates the worker threads.
+     */
+    public TaskDispatcher(BlockingPriorityQueue queue, int workerCount, Consumer<Task> handler,
+                          BiConsumer<Task, RuntimeException> errorHandler, ThreadFactory threadFactory) {
+        if (workerCount < 1) throw new IllegalArgumentException("Illegal argument: workerCount must >= 1.");
+        this.queue = queue;
+        this.handler = handler;
+        this.errorHandler = errorHandler;
+        workers = new Thread[workerCount];
+        for (int i = 0; i < workerCount; i++) workers[i] = threadFactory.newThread(this::work);
+    }
+
+    /**
+     * Creates a new dispatcher without an error handler. Call start() to launch the workers.
+     *
+     * @param queue The queue to take tasks from.
+     * @param workerCount The number of worker threads, at least 1.
+     * @param handler Runs a single task. Exceptions it throws are counted and do not stop the worker.
+     * @param threadFactory Creates the worker threads.
+     */
+    public TaskDispatcher(BlockingPriorityQueue queue, int workerCount, Consumer<Task> handler,
+                          ThreadFactory threadFactory) {
+        this(queue, workerCount, handler, null, threadFactory);
+    }
+
+    /**
+     * Creates a new dispatcher whose workers use defaultThreadFactory().
+     *
+     * @param queue The queue to take tasks from.
+     * @param workerCount The number of worker threads, at least 1.
+     * @param handler Runs a single task.
+     */
+    public TaskDispatcher(BlockingPriorityQueue queue, int workerCount, Consumer<Task> handler) {
+        this(queue, workerCount, handler, defaultThreadFactory());
+    }
+
+    /**
+     * Returns a factory for virtual threads if this JVM has them, or for daemon platform threads otherwise.
+     *
+     * @return a thread factory for workers.
+     */
+    public static ThreadFactory defaultThreadFactory() {
+        try {
+            Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            builder = builderType.getMethod("name", String.class, long.class).invoke(builder, "task-worker-", 0L);
+            return (ThreadFactory)builderType.getMethod("factory").invoke(builder);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            AtomicInteger count = new AtomicInteger();
+            return runnable -> {
+                Thread thread = new Thread(runnable, "task-worker-" + count.getAndIncrement());
+                thread.setDaemon(true);
+                return thread;
+            };
+        }
+    }
+
+    /**
+     * Starts the workers.
+     */
+    public synchronized void start() {
+        if (started) throw new IllegalStateException("Dispatcher already started");
+        started = true;
+        for (Thread worker : workers) worker.start();
+    }
+
+    /**
+     * Submits a task, waiting while the queue is full.
+     *
+     * @param task The task to run.
+     */
+    public void submit(Task task) {
+        queue.enqueue(task);
+    }
+
+    /**
+     * Stops accepting tasks. Workers keep running until every queued task has been handled.
+     */
+    public void shutdown() {
+        queue.close();
+    }
+
+    /**
+     * Stops accepting tasks, interrupts the workers and returns the tasks that were still queued.
+     *
+     * @return the tasks that were never started, highest priority first.
+     */
+    public List<Task> shutdownNow() {
+        queue.close();
+        for (Thread worker : workers) worker.interrupt();
+        List<Task> remaining = new ArrayList<>();
+        queue.drainTo(Integer.MAX_VALUE, remaining::add);
+        return remaining;
+    }
+
+    /**
+     * Waits for every worker to exit after a shutdown.
+     *
+     * @param timeout How long to wait.
+     * @param unit The unit of timeout.
+     * @return true if all workers exited, false if the time ran out.
+     * @throws InterruptedException if interrupted while waiting.
+     */
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        for (Thread worker : workers) {
+            long millis = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+            if (millis <= 0 && worker.isAlive()) return false;
+            worker.join(Math.max(millis, 1));
+            if (worker.isAlive()) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Returns the number of tasks the handler finished normally.
+     *
+     * @return the number of completed tasks.
+     */
+    public long getCompletedCount() {
+        return completed.get();
+    }
+
+    /**
+     * Returns the number of tasks for which the handler threw an exception.
+     *
+     * @return the number of failed tasks.
+     */
+    public long getFailedCount() {
+        return failed.get();
+    }
+
+    /**
+     * Returns the exception thrown by the handler most recently, or null if it never threw.
+     *
+     * @return the last failure, or null.
+     */
+    public RuntimeException getLastFailure() {
+        return lastFailure.get();
+    }
+
+    /**
+     * Worker loop: takes and runs tasks until the queue is closed and empty, or the worker is interrupted.
+     */
+    private void work() {
+        try {
+            Task task;
+            while ((task = queue.take()) != null) {
+                try {
+                    handler.accept(task);
+                    completed.incrementAndGet();
+                } catch (RuntimeException e) {
+                    failed.incrementAndGet();
+                    lastFailure.set(e);
+                    if (errorHandler != null) errorHandler.accept(task, e);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
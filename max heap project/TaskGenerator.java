@@ -1,3 +1,11 @@
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.PrintWriter;
 import java.util.Random;
 
 /**
@@ -5,6 +13,13 @@ import java.util.Random;
  */
 public class TaskGenerator implements TaskGeneratorInterface{
 
+    /**
+     * The start of the line for a task of each type, indexed by TaskType ordinal.
+     */
+    private static final String[] LINE_STARTS = {
+            "     Mining ", "     Fishing ", "     Farm Maintenance ", "     Feeding ", "     Foraging ",
+            "     Socializing "};
+
     private int currentEnergyStorage;
     private int luckOfDay;
     private long seed;
@@ -32,6 +47,53 @@ public class TaskGenerator implements TaskGeneratorInterface{
         this.rand = new Random();
         currentEnergyStorage = DEFAULT_ENERGY;
     }
+    /**
+     * Prepares this generator for a new run, as if it were newly created with the given task probability and seed.
+     *
+     * @param taskProbability The probability between 0 and 1 that a task will be generated in any hour.
+     * @param seed A seed for this generator's random number generator.
+     */
+    public void reset(double taskProbability, long seed){
+        this.taskProbability = taskProbability;
+        rand.setSeed(seed);
+        currentEnergyStorage = DEFAULT_ENERGY;
+    }
+    /**
+     * Writes the state of this generator, including its random number generator, so that readState() returns a
+     * generator that goes on exactly as this one would.
+     *
+     * @param out the output to write to
+     * @throws IOException if the output cannot be written
+     */
+    public void writeState(DataOutput out) throws IOException {
+        out.writeDouble(taskProbability);
+        out.writeInt(currentEnergyStorage);
+        ByteArrayOutputStream randBytes = new ByteArrayOutputStream(128);
+        try (ObjectOutputStream objects = new ObjectOutputStream(randBytes)) {
+            objects.writeObject(rand); //Random only exposes its state through serialization
+        }
+        out.writeInt(randBytes.size());
+        out.write(randBytes.toByteArray());
+    }
+    /**
+     * Reads a generator written by writeState().
+     *
+     * @param in the input to read from
+     * @return a generator in the state that was written
+     * @throws IOException if the input cannot be read or does not hold a generator
+     */
+    public static TaskGenerator readState(DataInput in) throws IOException {
+        TaskGenerator generator = new TaskGenerator(in.readDouble());
+        generator.currentEnergyStorage = in.readInt();
+        byte[] randBytes = new byte[in.readInt()];
+        in.readFully(randBytes);
+        try (ObjectInputStream objects = new ObjectInputStream(new ByteArrayInputStream(randBytes))) {
+            generator.rand = (Random) objects.readObject();
+        } catch (ClassNotFoundException | ClassCastException e) {
+            throw new IOException("The task generator state holds no random number generator.", e);
+        }
+        return generator;
+    }
     /**
      * Returns a new Task with the given parameters.
      *
@@ -47,6 +109,20 @@ public class TaskGenerator implements TaskGeneratorInterface{
         task.setPriority(0);
         return task;
     }
+    /**
+     * Returns a new Task described by one of the shared details of its type.
+     *
+     * @param hourCreated hour that the Task was created.
+     * @param taskType type of the Task
+     * @param detailId the index of the Task's detail
+     * @return A new task.
+     */
+    public Task getNewTask(int hourCreated, TaskInterface.TaskType taskType, int detailId) {
+
+        Task task = new Task(hourCreated, taskType, detailId);
+        task.setPriority(0);
+        return task;
+    }
     /**
      * Decreases the current energy storage by the given task type's energy per hour.
      *
@@ -126,36 +202,44 @@ public class TaskGenerator implements TaskGeneratorInterface{
      *
      * @param task  the Task
      * @param taskType the Task's type
-     * @return
+     * @return the Task's line of the hourly log.
      */
     public String toString(Task task, Task.TaskType taskType) {
-        if(taskType == Task.TaskType.MINING) {
-            return "     Mining " + task.getTaskDescription() + " at " +
-                    currentEnergyStorage + " energy points (Priority:" + task.getPriority() +")";
-        }
-        if(taskType == Task.TaskType.FISHING) {
-            return "     Fishing " + task.getTaskDescription() + " at " +
-                    currentEnergyStorage + " energy points (Priority:" + task.getPriority() +")" ;
-        }
-        if(taskType == Task.TaskType.FARM_MAINTENANCE) {
-            return "     Farm Maintenance " + task.getTaskDescription() + " at "
-                    + currentEnergyStorage + " energy points (Priority:" + task.getPriority()
-                    +")";
-        }
-        if(taskType == Task.TaskType.FORAGING) {
-            return "     Foraging " + task.getTaskDescription() + " at " +
-                    currentEnergyStorage + " energy points (Priority:" + task.getPriority() +")" ;
-        }
-        if(taskType == Task.TaskType.FEEDING) {
-            return "     Feeding " + task.getTaskDescription() + " at " +
-                    currentEnergyStorage + " energy points (Priority:" + task.getPriority() +")";
-        }
-        if(taskType == Task.TaskType.SOCIALIZING) {
-            return "     Socializing " + task.getTaskDescription() + " at " +
-                    currentEnergyStorage + " energy points (Priority:" + task.getPriority() +")";
-        }
-        else { return "nothing to see here..."; }
+        return LINE_STARTS[taskType.ordinal()] + task.getTaskDescription() + " at " +
+                currentEnergyStorage + " energy points (Priority:" + task.getPriority() + ")";
     }
-}
 
+    /**
+     * Prints the log line announcing a new task, which shows the task as Task.toString() does, without building
+     * the string first.
+     *
+     * @param out the writer to print to
+     * @param task the new Task
+     */
+    public static void printNewTask(PrintWriter out, Task task) {
+        out.print("\t\t\t\t\t\t\tNEW TASK: ");
+        out.print(task.getTaskType().name());
+        out.print(' ');
+        out.print(task.getTaskDescription());
+        out.print(" at Hour: ");
+        out.print(task.getHourCreated());
+        out.print(":00\n");
+    }
 
+    /**
+     * Prints a task's information as toString(task, task.getTaskType()) does, followed by a line separator,
+     * without building the string first.
+     *
+     * @param out the writer to print to
+     * @param task the Task
+     */
+    public void println(PrintWriter out, Task task) {
+        out.print(LINE_STARTS[task.getTaskType().ordinal()]);
+        out.print(task.getTaskDescription());
+        out.print(" at ");
+        out.print(currentEnergyStorage);
+        out.print(" energy points (Priority:");
+        out.print(task.getPriority());
+        out.println(')');
+    }
+}
@@ -0,0 +1,260 @@
+import java.util.Arrays;
+
+/**
+ * Column-oriented storage for tasks. Each task lives in a numbered slot, and its fields are kept in parallel
+ * primitive arrays indexed by slot rather than in a Task object of its own, so millions of tasks cost a few bytes
+ * each and scanning one field touches contiguous memory. Freed slots are reused.
+ *
+ * @author Spencer Pattillo
+ */
+public class TaskStore {
+
+    private static final TaskInterface.TaskType[] TYPES = TaskInterface.TaskType.values();
+
+    private int[] priority;
+    private int[] waitingTime;
+    private int[] hourCreated;
+    private int[] enqueuedHour;
+    private byte[] type;
+    private String[] description;
+    private Task[] tasks;
+
+    private int[] freeSlots;
+    private int freeCount;
+    private int nextSlot;
+
+    /**
+     * Creates a new store with room for the given number of tasks before growing.
+     *
+     * @param initialCapacity The initial number of slots.
+     */
+    public TaskStore(int initialCapacity) {
+        int capacity = Math.max(initialCapacity, 1);
+        priority = new int[capacity];
+        waitingTime = new int[capacity];
+        hourCreated = new int[capacity];
+        enqueuedHour = new int[capacity];
+        type = new byte[capacity];
+        description = new String[capacity];
+        tasks = new Task[capacity];
+        freeSlots = new int[capacity];
+    }
+
+    /**
+     * Stores a new task and returns its slot.
+     *
+     * @param hourCreated The hour the task was created.
+     * @param taskType The task's type.
+     * @param taskDescription The task's description.
+     * @param priority The task's priority.
+     * @param waitingTime The task's waiting time.
+     * @param enqueuedHour The hour the task was last enqueued at, as SchedulerMetrics recorded it.
+     * @return the slot holding the task.
+     */
+    public int add(int hourCreated, TaskInterface.TaskType taskType, String taskDescription, int priority,
+                   int waitingTime, int enqueuedHour) {
+        int slot;
+        if (freeCount > 0) {
+            slot = freeSlots[--freeCount];
+        } else {
+            if (nextSlot == this.priority.length) expandCapacity();
+            slot = nextSlot++;
+        }
+        this.priority[slot] = priority;
+        this.waitingTime[slot] = waitingTime;
+        this.hourCreated[slot] = hourCreated;
+        this.enqueuedHour[slot] = enqueuedHour;
+        this.type[slot] = (byte)taskType.ordinal();
+        this.description[slot] = taskDescription;
+        this.tasks[slot] = null;
+        return slot;
+    }
+
+    /**
+     * Stores a copy of the given task and returns its slot. The store remembers the task, so removeTask() can hand
+     * the same object back instead of allocating a new one.
+     *
+     * @param task The task to copy.
+     * @return the slot holding the task.
+     */
+    public int add(Task task) {
+        int slot = add(task.getHourCreated(), task.getTaskType(), task.getTaskDescription(), task.getPriority(),
+                task.getWaitingTime(), task.getEnqueuedHour());
+        tasks[slot] = task;
+        return slot;
+    }
+
+    /**
+     * Frees the given slot for reuse.
+     *
+     * @param slot A slot returned by add().
+     */
+    public void remove(int slot) {
+        description[slot] = null;
+        tasks[slot] = null;
+        freeSlots[freeCount++] = slot;
+    }
+
+    /**
+     * Frees the given slot and returns its task. A slot filled by add(Task) gives back the task it was copied from,
+     * with the stored priority, waiting time and enqueued hour written into it; any other slot gives a new Task.
+     *
+     * @param slot A slot returned by add().
+     * @return a Task equal to the stored one.
+     */
+    public Task removeTask(int slot) {
+        Task task = tasks[slot];
+        if (task == null) {
+            task = toTask(slot);
+        } else {
+            task.setPriority(priority[slot]);
+            task.setWaitingTime(waitingTime[slot]);
+            task.setEnqueuedHour(enqueuedHour[slot]);
+        }
+        remove(slot);
+        return task;
+    }
+
+    /**
+     * Returns a new Task object with the fields stored in the given slot.
+     *
+     * @param slot A slot returned by add().
+     * @return a Task equal to the stored one.
+     */
+    public Task toTask(int slot) {
+        Task task = new Task(hourCreated[slot], TYPES[type[slot]], description[slot]);
+        task.setPriority(priority[slot]);
+        task.setWaitingTime(waitingTime[slot]);
+        task.setEnqueuedHour(enqueuedHour[slot]);
+        return task;
+    }
+
+    /**
+     * Returns the priority stored in the given slot.
+     *
+     * @param slot A slot returned by add().
+     * @return the priority.
+     */
+    public int getPriority(int slot) {
+        return priority[slot];
+    }
+
+    /**
+     * Sets the priority stored in the given slot.
+     *
+     * @param slot A slot returned by add().
+     * @param value The new priority.
+     */
+    public void setPriority(int slot, int value) {
+        priority[slot] = value;
+    }
+
+    /**
+     * Returns the waiting time stored in the given slot.
+     *
+     * @param slot A slot returned by add().
+     * @return the waiting time.
+     */
+    public int getWaitingTime(int slot) {
+        return waitingTime[slot];
+    }
+
+    /**
+     * Returns the hour the task in the given slot was created.
+     *
+     * @param slot A slot returned by add().
+     * @return the hour created.
+     */
+    public int getHourCreated(int slot) {
+        return hourCreated[slot];
+    }
+
+    /**
+     * Returns the hour the task in the given slot was last enqueued at.
+     *
+     * @param slot A slot returned by add().
+     * @return the enqueued hour.
+     */
+    public int getEnqueuedHour(int slot) {
+        return enqueuedHour[slot];
+    }
+
+    /**
+     * Returns the type of the task in the given slot.
+     *
+     * @param slot A slot returned by add().
+     * @return the task type.
+     */
+    public TaskInterface.TaskType getTaskType(int slot) {
+        return TYPES[type[slot]];
+    }
+
+    /**
+     * Returns the description of the task in the given slot.
+     *
+     * @param slot A slot returned by add().
+     * @return the task description.
+     */
+    public String getTaskDescription(int slot) {
+        return description[slot];
+    }
+
+    /**
+     * Increments the waiting time of the given slot and bumps its priority the same way Task.updatePriority() does.
+     *
+     * @param slot A slot returned by add().
+     * @param timeToIncrementPriority The time after which to increment priority.
+     * @param maxPriority The maximum priority for the task.
+     * @return True if the priority was incremented, false otherwise.
+     */
+    public boolean age(int slot, int timeToIncrementPriority, int maxPriority) {
+        if (++waitingTime[slot] >= timeToIncrementPriority) {
+            waitingTime[slot] = 0;
+            if (priority[slot] < maxPriority) {
+                priority[slot]++;
+                if (SchedulerMetrics.ENABLED) SchedulerMetrics.countBumps(1, priority[slot] == maxPriority ? 1 : 0);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Compares the tasks in two slots with the same rules as Task.compareTo().
+     *
+     * @param i A slot returned by add().
+     * @param j A slot returned by add().
+     * @return a positive number if slot i has the higher priority, negative if slot j does, 0 if they are equal.
+     */
+    public int compare(int i, int j) {
+        if (priority[i] != priority[j]) return Integer.compare(priority[i], priority[j]);
+        return Integer.compare(hourCreated[j], hourCreated[i]);
+    }
+
+    /**
+     * Compares the task in a slot with a task outside the store, with the same rules as Task.compareTo().
+     *
+     * @param i A slot returned by add().
+     * @param task A task.
+     * @return a positive number if slot i has the higher priority, negative if the task does, 0 if they are equal.
+     */
+    public int compare(int i, Task task) {
+        if (priority[i] != task.getPriority()) return Integer.compare(priority[i], task.getPriority());
+        return Integer.compare(task.getHourCreated(), hourCreated[i]);
+    }
+
+    /**
+     * Doubles the number of slots.
+     */
+    private void expandCapacity() {
+        int capacity = priority.length * 2;
+        priority = Arrays.copyOf(priority, capacity);
+        waitingTime = Arrays.copyOf(waitingTime, capacity);
+        hourCreated = Arrays.copyOf(hourCreated, capacity);
+        enqueuedHour = Arrays.copyOf(enqueuedHour, capacity);
+        type = Arrays.copyOf(type, capacity);
+        description = Arrays.copyOf(description, capacity);
+        tasks = Arrays.copyOf(tasks, capacity);
+        freeSlots = Arrays.copyOf(freeSlots, capacity);
+    }
+}
@@ -0,0 +1,99 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collector;
+
+/**
+ * Streaming selector for the k greatest elements of a sequence. Only k elements are ever held: each new element
+ * either replaces the least of them or is dropped, in O(log k).
+ *
+ * @param <T> The type of element being selected.
+ */
+public class TopK<T extends Comparable<T>> {
+
+    private final BoundedMaxHeap<T> heap;
+
+    /**
+     * Creates a new selector for the k greatest elements.
+     *
+     * @param k The number of elements to keep, at least 1.
+     */
+    public TopK(int k) {
+        heap = new BoundedMaxHeap<>(k, BoundedMaxHeap.OverflowPolicy.EVICT_LOWEST);
+    }
+
+    /**
+     * Returns the k greatest elements of the given sequence, greatest first.
+     *
+     * @param elements Any sequence of elements.
+     * @param k The number of elements to keep.
+     * @param <T> The type of element being selected.
+     * @return the k greatest elements, or all of them if there are fewer.
+     */
+    public static <T extends Comparable<T>> List<T> of(Iterable<? extends T> elements, int k) {
+        TopK<T> topK = new TopK<>(k);
+        topK.offerAll(elements);
+        return topK.toList();
+    }
+
+    /**
+     * Returns a collector that keeps the k greatest elements of a stream, greatest first.
+     *
+     * @param k The number of elements to keep.
+     * @param <T> The type of element being selected.
+     * @return a collector for the k greatest elements.
+     */
+    public static <T extends Comparable<T>> Collector<T, ?, List<T>> collector(int k) {
+        return Collector.of(() -> new TopK<T>(k), TopK::offer, TopK::merge, TopK::toList);
+    }
+
+    /**
+     * Considers one element.
+     *
+     * @param element The element to consider.
+     */
+    public void offer(T element) {
+        heap.insert(element);
+    }
+
+    /**
+     * Considers every element of the given sequence.
+     *
+     * @param elements Any sequence of elements.
+     */
+    public void offerAll(Iterable<? extends T> elements) {
+        for (T element : elements) heap.insert(element);
+    }
+
+    /**
+     * Considers every element kept by another selector.
+     *
+     * @param other Another selector.
+     * @return this selector.
+     */
+    public TopK<T> merge(TopK<T> other) {
+        for (int i = 1; i <= other.heap.getSize(); i++) heap.insert(other.heap.get(i));
+        return this;
+    }
+
+    /**
+     * Returns the number of elements currently kept.
+     *
+     * @return the number of elements kept.
+     */
+    public int getSize() {
+        return heap.getSize();
+    }
+
+    /**
+     * Returns the kept elements, greatest first, without clearing them.
+     *
+     * @return the kept elements in descending order.
+     */
+    public List<T> toList() {
+        List<T> list = new ArrayList<>(heap.getSize());
+        for (int i = 1; i <= heap.getSize(); i++) list.add(heap.get(i));
+        list.sort(Collections.reverseOrder());
+        return list;
+    }
+}
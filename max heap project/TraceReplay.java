@@ -0,0 +1,219 @@
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Reads traces written by MyLifeInStarDew --trace.
+ *
+ * text prints the log the traced run printed at the default verbosity, followed by its summary. summary prints the
+ * totals of the run and the hours worked and money made for each task type. verify runs a seeded trace again with
+ * the settings in its header, optionally on another queue, and reports the first record that differs.
+ * diff reports the first record that differs between two traces.
+ *
+ * Usage: java TraceReplay text|summary FILE
+ *        java TraceReplay verify FILE [--queue=...]
+ *        java TraceReplay diff FILE FILE
+ */
+public class TraceReplay {
+
+    /**
+     * Prints the log and summary of the traced run as MyLifeInStarDew printed them.
+     *
+     * @param trace The trace.
+     * @param out Receives the log.
+     */
+    public static void printText(EventTraceReader trace, PrintWriter out) {
+        StarDewDailyClock clock = new StarDewDailyClock();
+        TaskGenerator taskGenerator = new TaskGenerator(0);
+        for (int i = 0; i < trace.getRecordCount(); i++) {
+            switch (trace.getEvent(i)) {
+                case EventTrace.DAY_START:
+                    long luckBits = ((long) trace.getEnergy(i) << 32) | (trace.getMoney(i) & 0xffffffffL);
+                    MyLifeInStarDew.logDayStart(out, trace.getTaskId(i), Double.longBitsToDouble(luckBits));
+                    break;
+                case EventTrace.NEW_TASK:
+                    TaskGenerator.printNewTask(out, trace.getTask(i));
+                    break;
+                case EventTrace.WORK:
+                    printClock(out, clock, trace.getHourOfDay(i));
+                    taskGenerator.setCurrentEnergyStorage(trace.getEnergy(i));
+                    taskGenerator.println(out, trace.getTask(i));
+                    break;
+                case EventTrace.IDLE:
+                    printClock(out, clock, trace.getHourOfDay(i));
+                    out.println();
+                    break;
+                case EventTrace.PASSED_OUT:
+                    MyLifeInStarDew.logBadLuck(out, 1);
+                    break;
+                case EventTrace.DIED:
+                    MyLifeInStarDew.logBadLuck(out, 2);
+                    break;
+                case EventTrace.DAY_OVER:
+                    MyLifeInStarDew.logDayOver(out);
+                    break;
+                case EventTrace.DAY_END:
+                    MyLifeInStarDew.logDayEnd(out, trace.getEnergy(i));
+                    break;
+                case EventTrace.RUN_END:
+                    MyLifeInStarDew.logSummary(out, trace.getSimulationDays(), new SimulationResult(
+                            trace.getMoney(i), trace.getPriority(i), trace.getTaskId(i), trace.getTick(i)));
+                    break;
+                default:
+                    throw new IllegalStateException("Unknown event in " + trace.toString(i) + ".");
+            }
+        }
+    }
+
+    /**
+     * Prints the clock that starts the line of an hour.
+     */
+    private static void printClock(PrintWriter out, StarDewDailyClock clock, int hourOfDay) {
+        out.print("\t\t");
+        out.print(clock.toString(hourOfDay));
+        out.print('\t');
+    }
+
+    /**
+     * Prints the settings and totals of the traced run and the hours worked and money made for each task type.
+     *
+     * @param trace The trace.
+     * @param out Receives the summary.
+     */
+    public static void printSummary(EventTraceReader trace, PrintWriter out) {
+        TaskInterface.TaskType[] types = TaskInterface.TaskType.values();
+        int[] hoursWorked = new int[types.length];
+        int[] tasksCreated = new int[types.length];
+        int idle = 0;
+        int passedOut = 0;
+        int died = 0;
+        int daysOver = 0;
+        for (int i = 0; i < trace.getRecordCount(); i++) {
+            switch (trace.getEvent(i)) {
+                case EventTrace.NEW_TASK: tasksCreated[trace.getTaskType(i).ordinal()]++; break;
+                case EventTrace.WORK: hoursWorked[trace.getTaskType(i).ordinal()]++; break;
+                case EventTrace.IDLE: idle++; break;
+                case EventTrace.PASSED_OUT: passedOut++; break;
+                case EventTrace.DIED: died++; break;
+                case EventTrace.DAY_OVER: daysOver++; break;
+                default: break;
+            }
+        }
+        out.println("Settings: maxPriority " + trace.getMaxPriority() + ", timeToIncrement "
+                + trace.getTimeToIncrementLevel() + ", days " + trace.getSimulationDays() + ", probability "
+                + trace.getTaskGenerationProbability() + ", " + (trace.isSeeded() ? "seed " + trace.getSeed()
+                : "unseeded") + ", queue " + trace.getQueueType());
+        out.println("Records: " + trace.getRecordCount());
+        int last = trace.getRecordCount() - 1;
+        if (last >= 0 && trace.getEvent(last) == EventTrace.RUN_END) {
+            out.println("Total Simulation hours: " + trace.getTick(last) + " hours");
+            out.println("Total Money made: " + trace.getMoney(last) + "$");
+        } else {
+            out.println("The trace has no RUN_END record; the run did not finish.");
+        }
+        out.println("Idle hours: " + idle + ", days over: " + daysOver + ", passed out: " + passedOut + ", died: "
+                + died);
+        for (TaskInterface.TaskType type : types) {
+            int t = type.ordinal();
+            out.format("%-16s tasks %d, hours %d, money earned %d$%n", type, tasksCreated[t], hoursWorked[t],
+                    hoursWorked[t] * type.getMoneyPerHour());
+        }
+    }
+
+    /**
+     * Runs the seeded trace again on the given queue, and returns the index of the first record that differs, or -1
+     * if the traces are equal.
+     *
+     * @param trace The trace of a seeded run.
+     * @param queueType The queue to run on, or null for the queue in the trace.
+     * @param out Receives the first differing records, if any.
+     * @return the index of the first differing record, or -1.
+     * @throws IOException if the new trace cannot be written or read.
+     */
+    public static int verify(EventTraceReader trace, String queueType, PrintWriter out) throws IOException {
+        if (!trace.isSeeded()) throw new IllegalArgumentException("Illegal argument: only seeded traces can be verified.");
+        if (queueType == null) queueType = trace.getQueueType();
+        MyLifeInStarDew simulation = new MyLifeInStarDew(trace.getMaxPriority(), trace.getTimeToIncrementLevel(),
+                trace.getSimulationDays(), trace.getTaskGenerationProbability(), trace.getSeed(), queueType);
+        Path file = Files.createTempFile("stardew", ".trace");
+        try {
+            simulation.setTrace(file);
+            simulation.simulate(null);
+            return diff(trace, new EventTraceReader(file), out);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    /**
+     * Returns the index of the first record that differs between two traces, or -1 if they are equal, and prints
+     * both versions of that record.
+     *
+     * @param a A trace.
+     * @param b Another trace.
+     * @param out Receives the first differing records, if any.
+     * @return the index of the first differing record, or -1.
+     */
+    public static int diff(EventTraceReader a, EventTraceReader b, PrintWriter out) {
+        int i = a.mismatch(b);
+        if (i < 0) {
+            out.println("Traces match: " + a.getRecordCount() + " records.");
+        } else {
+            out.println("Traces differ at record " + i + ":");
+            out.println("< " + (i < a.getRecordCount() ? a.toString(i) : "end of trace"));
+            out.println("> " + (i < b.getRecordCount() ? b.toString(i) : "end of trace"));
+        }
+        return i;
+    }
+
+    /**
+     * Show usage for the program.
+     */
+    private static void showUsage() {
+        System.err.println("Usage: java TraceReplay text|summary <file>\n" +
+                "       java TraceReplay verify <file> [--queue=heap|lazy|bucket|columnar|pairing|keyed]\n" +
+                "       java TraceReplay diff <file> <file>");
+        System.exit(1);
+    }
+
+    /**
+     * Main method for the program. Exits with status 2 if verify or diff finds a difference.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) showUsage();
+        PrintWriter out = new PrintWriter(new BufferedWriter(new OutputStreamWriter(System.out), 1 << 16));
+        EventTraceReader trace = new EventTraceReader(Paths.get(args[1]));
+        int mismatch = -1;
+        switch (args[0]) {
+            case "text":
+                printText(trace, out);
+                break;
+            case "summary":
+                printSummary(trace, out);
+                break;
+            case "verify":
+                String queueType = null;
+                for (int i = 2; i < args.length; i++) {
+                    if (args[i].startsWith("--queue=")) {
+                        queueType = args[i].substring("--queue=".length());
+                    } else {
+                        throw new IllegalArgumentException("Illegal argument: unknown option " + args[i] + ".");
+                    }
+                }
+                mismatch = verify(trace, queueType, out);
+                break;
+            case "diff":
+                if (args.length != 3) showUsage();
+                mismatch = diff(trace, new EventTraceReader(Paths.get(args[2])), out);
+                break;
+            default:
+                showUsage();
+        }
+        out.flush();
+        if (mismatch >= 0) System.exit(2);
+    }
+}
@@ -0,0 +1,108 @@
+package stardew;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Cost of one hourly update() of each priority queue type against the size of the backlog it has to age.
+ *
+ * The backlog is kept at a steady age distribution, as in a long simulation: tasks start with priorities and waiting
+ * times spread evenly over the aging range, and before each update the tasks that would otherwise pile up at
+ * maxPriority are retired and replaced by new ones, outside the measured time. Without that, every task reaches
+ * maxPriority after MAX_PRIORITY * TIME_TO_INCREMENT updates and the rest of the run measures a queue with nothing
+ * left to promote. The lazy queue's O(1) update is close to the cost of the per-invocation timer here.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Thread)
+public class AgingBenchmark {
+
+    static final int MAX_PRIORITY = 10;
+    static final int TIME_TO_INCREMENT = 50;
+
+    @Param({"heap", "lazy", "bucket", "columnar", "pairing", "keyed"})
+    public String queueType;
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    public int backlog;
+
+    private PriorityQueueInterface queue;
+    private Random random;
+    private int nextHour;
+
+    /**
+     * Fills a queue of the given type with backlog tasks of random types and details.
+     */
+    @Setup(Level.Trial)
+    public void fill() {
+        random = new Random(42);
+        queue = backlog(queueType, backlog, random);
+        nextHour = backlog;
+    }
+
+    /**
+     * Retires the oldest tasks and adds new ones in their place, keeping the age distribution steady.
+     */
+    @Setup(Level.Invocation)
+    public void turnover() {
+        nextHour = turnover(queue, backlog, nextHour, random);
+    }
+
+    @Benchmark
+    public void update() {
+        queue.update(TIME_TO_INCREMENT, MAX_PRIORITY);
+    }
+
+    /**
+     * Returns a queue of the given type holding the given number of tasks, one created in each hour, whose
+     * priorities and waiting times are spread evenly below maxPriority.
+     */
+    static PriorityQueueInterface backlog(String queueType, int size, Random random) {
+        PriorityQueueInterface queue = MyLifeInStarDew.newPriorityQueue(queueType, TIME_TO_INCREMENT, MAX_PRIORITY);
+        for (int hour = 0; hour < size; hour++) {
+            Task task = newTask(hour, random);
+            task.setPriority(random.nextInt(MAX_PRIORITY));
+            task.setWaitingTime(random.nextInt(TIME_TO_INCREMENT));
+            queue.enqueue(task);
+        }
+        return queue;
+    }
+
+    /**
+     * Removes the tasks with the highest priorities and enqueues as many new tasks, as many as reach maxPriority in
+     * one update of an evenly aged backlog of the given size.
+     *
+     * @return the hour to create the next new task at.
+     */
+    static int turnover(PriorityQueueInterface queue, int size, int nextHour, Random random) {
+        int count = Math.max(1, size / (MAX_PRIORITY * TIME_TO_INCREMENT));
+        queue.drainTo(count, task -> { });
+        for (int i = 0; i < count; i++) queue.enqueue(newTask(nextHour++, random));
+        return nextHour;
+    }
+
+    /**
+     * Returns a new task of a random type and detail.
+     */
+    private static Task newTask(int hour, Random random) {
+        TaskInterface.TaskType[] types = TaskInterface.TaskType.values();
+        TaskInterface.TaskType type = types[random.nextInt(types.length)];
+        return new Task(hour, type, random.nextInt(Task.getDetailCount(type)));
+    }
+}
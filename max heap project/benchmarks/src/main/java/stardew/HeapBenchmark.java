@@ -0,0 +1,134 @@
+package stardew;
+
+import java.util.Collections;
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Insert and extract cost of MaxHeap, IntMaxHeap and java.util.PriorityQueue at a steady size. Each operation
+ * inserts one value into a heap holding size values and then extracts the maximum, so it measures one sift up and
+ * one sift down at that depth.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class HeapBenchmark {
+
+    private static final int VALUES = 1 << 16;
+
+    /**
+     * The values inserted during the measurement, boxed once so that boxing is not measured.
+     */
+    @State(Scope.Thread)
+    public static class Values {
+        @Param({"1000", "10000", "100000", "1000000", "10000000"})
+        public int size;
+
+        Integer[] values = new Integer[VALUES];
+        int next;
+
+        /**
+         * Draws the values to insert.
+         */
+        @Setup(Level.Trial)
+        public void draw() {
+            Random random = new Random(42);
+            for (int i = 0; i < VALUES; i++) values[i] = random.nextInt();
+        }
+
+        /**
+         * Returns the next value to insert.
+         */
+        Integer next() {
+            return values[next++ & (VALUES - 1)];
+        }
+    }
+
+    /**
+     * A MaxHeap filled with size random values.
+     */
+    @State(Scope.Thread)
+    public static class MaxHeapState {
+        MaxHeap<Integer> heap;
+
+        /**
+         * Fills the heap.
+         */
+        @Setup(Level.Trial)
+        public void fill(Values values) {
+            heap = new MaxHeap<>(values.size + 1);
+            Random random = new Random(7);
+            for (int i = 0; i < values.size; i++) heap.insert(random.nextInt());
+        }
+    }
+
+    /**
+     * An IntMaxHeap filled with size random values.
+     */
+    @State(Scope.Thread)
+    public static class IntMaxHeapState {
+        IntMaxHeap heap;
+
+        /**
+         * Fills the heap.
+         */
+        @Setup(Level.Trial)
+        public void fill(Values values) {
+            heap = new IntMaxHeap(values.size + 1);
+            Random random = new Random(7);
+            for (int i = 0; i < values.size; i++) heap.insert(random.nextInt());
+        }
+    }
+
+    /**
+     * A java.util.PriorityQueue in reverse order, so that poll() returns the maximum, filled with size random values.
+     */
+    @State(Scope.Thread)
+    public static class JavaQueueState {
+        PriorityQueue<Integer> queue;
+
+        /**
+         * Fills the queue.
+         */
+        @Setup(Level.Trial)
+        public void fill(Values values) {
+            queue = new PriorityQueue<>(values.size + 1, Collections.reverseOrder());
+            Random random = new Random(7);
+            for (int i = 0; i < values.size; i++) queue.add(random.nextInt());
+        }
+    }
+
+    @Benchmark
+    public Object maxHeap(Values values, MaxHeapState state) {
+        state.heap.insert(values.next());
+        return state.heap.extractMax();
+    }
+
+    @Benchmark
+    public int intMaxHeap(Values values, IntMaxHeapState state) {
+        state.heap.insert(values.next());
+        return state.heap.extractMax();
+    }
+
+    @Benchmark
+    public Integer javaPriorityQueue(Values values, JavaQueueState state) {
+        state.queue.add(values.next());
+        return state.queue.poll();
+    }
+}
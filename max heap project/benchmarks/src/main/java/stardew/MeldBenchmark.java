@@ -0,0 +1,125 @@
+package stardew;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * MaxHeap against PairingHeap on a merge-heavy workload: the elements are spread over shards, the shards are merged
+ * pairwise until one is left, as during rebalancing, and a quarter of the elements are then extracted. MaxHeap has
+ * to re-insert every element of the smaller shard on each merge, PairingHeap only links two roots.
+ *
+ * The merge consumes the shards, so every invocation gets freshly filled ones. The merge benchmarks time the merge
+ * alone; the mergeAndExtract benchmarks add the extraction.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Thread)
+public class MeldBenchmark {
+
+    @Param({"1000000"})
+    public int elements;
+
+    @Param({"1024", "4096"})
+    public int shards;
+
+    private Integer[] values;
+    private List<MaxHeap<Integer>> maxHeaps;
+    private List<PairingHeap<Integer>> pairingHeaps;
+
+    /**
+     * Draws the values, boxed once so that boxing is not measured.
+     */
+    @Setup(Level.Trial)
+    public void draw() {
+        values = new Integer[elements];
+        Random random = new Random(42);
+        for (int i = 0; i < elements; i++) values[i] = random.nextInt();
+    }
+
+    /**
+     * Spreads the values over new shards of both kinds.
+     */
+    @Setup(Level.Invocation)
+    public void fill() {
+        maxHeaps = new ArrayList<>(shards);
+        pairingHeaps = new ArrayList<>(shards);
+        for (int s = 0; s < shards; s++) {
+            maxHeaps.add(new MaxHeap<>(elements / shards + 1));
+            pairingHeaps.add(new PairingHeap<>());
+        }
+        for (int i = 0; i < elements; i++) {
+            maxHeaps.get(i % shards).insert(values[i]);
+            pairingHeaps.get(i % shards).insert(values[i]);
+        }
+    }
+
+    @Benchmark
+    public MaxHeap<Integer> maxHeapMerge() {
+        return mergeMaxHeaps();
+    }
+
+    @Benchmark
+    public PairingHeap<Integer> pairingHeapMerge() {
+        return mergePairingHeaps();
+    }
+
+    @Benchmark
+    public long maxHeapMergeAndExtract() {
+        MaxHeap<Integer> heap = mergeMaxHeaps();
+        long sum = 0;
+        for (int i = elements / 4; i > 0; i--) sum += (Integer)heap.extractMax();
+        return sum;
+    }
+
+    @Benchmark
+    public long pairingHeapMergeAndExtract() {
+        PairingHeap<Integer> heap = mergePairingHeaps();
+        long sum = 0;
+        for (int i = elements / 4; i > 0; i--) sum += heap.extractMax();
+        return sum;
+    }
+
+    /**
+     * Merges the MaxHeap shards pairwise by re-inserting the elements of one into the other.
+     */
+    private MaxHeap<Integer> mergeMaxHeaps() {
+        for (int step = 1; step < shards; step *= 2) {
+            for (int s = 0; s + step < shards; s += 2 * step) {
+                MaxHeap<Integer> into = maxHeaps.get(s);
+                MaxHeap<Integer> from = maxHeaps.get(s + step);
+                for (int i = 1; i <= from.getSize(); i++) into.insert(from.get(i));
+            }
+        }
+        return maxHeaps.get(0);
+    }
+
+    /**
+     * Merges the PairingHeap shards pairwise with meld().
+     */
+    private PairingHeap<Integer> mergePairingHeaps() {
+        for (int step = 1; step < shards; step *= 2) {
+            for (int s = 0; s + step < shards; s += 2 * step) {
+                pairingHeaps.get(s).meld(pairingHeaps.get(s + step));
+            }
+        }
+        return pairingHeaps.get(0);
+    }
+}
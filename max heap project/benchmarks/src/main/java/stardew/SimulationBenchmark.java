@@ -0,0 +1,125 @@
+package stardew;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The simulation loop of MyLifeInStarDew. hour measures the queue work of one simulated hour against a steady
+ * backlog: the finished task is re-enqueued at priority 0, the next one dequeued, and every queued task aged. The
+ * backlog keeps the steady age distribution of AgingBenchmark, with the same turnover outside the measured time. days measures whole
+ * runs without a log, reported in simulated days per second. sparseRun times one long run in which a task arrives in
+ * only 0.2% of hours, so the backlog stays small and the time goes to the hourly loop itself.
+ */
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class SimulationBenchmark {
+
+    private static final int SIMULATION_DAYS = 100;
+    private static final int SPARSE_DAYS = 20000;
+    private static final int SPARSE_TIME_TO_INCREMENT = 500;
+    private static final double SPARSE_PROBABILITY = 0.002;
+
+    /**
+     * A queue of the given type holding backlog tasks, and the task worked on in the last hour.
+     */
+    @State(Scope.Thread)
+    public static class Loop {
+        @Param({"heap", "lazy", "bucket", "columnar", "pairing", "keyed"})
+        public String queueType;
+
+        @Param({"100", "10000", "1000000"})
+        public int backlog;
+
+        PriorityQueueInterface queue;
+        Task current;
+        Random random;
+        int nextHour;
+
+        /**
+         * Fills the queue and takes out the first task.
+         */
+        @Setup(Level.Trial)
+        public void fill() {
+            random = new Random(42);
+            queue = AgingBenchmark.backlog(queueType, backlog + 1, random);
+            current = queue.dequeue();
+            nextHour = backlog + 1;
+        }
+
+        /**
+         * Retires the oldest tasks and adds new ones in their place, keeping the age distribution steady.
+         */
+        @Setup(Level.Invocation)
+        public void turnover() {
+            nextHour = AgingBenchmark.turnover(queue, backlog, nextHour, random);
+        }
+    }
+
+    /**
+     * A simulator that is reset() before each run, for one queue type. Every run has the same seed, so every
+     * invocation does the same work.
+     */
+    @State(Scope.Thread)
+    public static class Run {
+        @Param({"heap", "lazy", "keyed"})
+        public String queueType;
+
+        MyLifeInStarDew simulator = new MyLifeInStarDew();
+    }
+
+    /**
+     * A simulator for the sparse run on the given queue type.
+     */
+    @State(Scope.Thread)
+    public static class SparseRun {
+        @Param({"heap", "lazy"})
+        public String queueType;
+
+        MyLifeInStarDew simulator = new MyLifeInStarDew();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public Task hour(Loop loop) {
+        loop.current.setPriority(0);
+        loop.current.resetWaitingTime();
+        loop.current = loop.queue.enqueueThenDequeue(loop.current);
+        loop.queue.update(AgingBenchmark.TIME_TO_INCREMENT, AgingBenchmark.MAX_PRIORITY);
+        return loop.current;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    @OperationsPerInvocation(SIMULATION_DAYS)
+    public SimulationResult days(Run run) {
+        run.simulator.reset(AgingBenchmark.MAX_PRIORITY, AgingBenchmark.TIME_TO_INCREMENT, SIMULATION_DAYS, 0.3,
+                1L, run.queueType);
+        return run.simulator.simulate(null);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public SimulationResult sparseRun(SparseRun run) {
+        run.simulator.reset(AgingBenchmark.MAX_PRIORITY, SPARSE_TIME_TO_INCREMENT, SPARSE_DAYS, SPARSE_PROBABILITY, 7L,
+                run.queueType);
+        return run.simulator.simulate(null);
+    }
+}